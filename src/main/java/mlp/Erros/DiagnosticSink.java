@@ -0,0 +1,92 @@
+package mlp.Erros;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Coletor compartilhado de diagnósticos (léxico, sintático e semântico).
+ * - Remove duplicados estruturalmente por (tipo, código, linha, coluna),
+ *   sem montar strings: a mensagem só é formatada quando impressa.
+ * - Agrupa sequências de erros léxicos idênticos e consecutivos em um único
+ *   diagnóstico com contagem (ex.: arquivo binário lido por engano).
+ * - Respeita um limite opcional de erros (--max-errors); ao atingi-lo os
+ *   diagnósticos seguintes são descartados e as fases restantes podem parar.
+ */
+public class DiagnosticSink {
+
+    /** Chave estrutural usada na remoção de duplicados. */
+    private record Chave(Diagnostico.Tipo tipo, int codigo, int linha, int coluna) {}
+
+    private final int maxErros;   // 0 = sem limite
+    private final List<Diagnostico> diagnosticos = new ArrayList<>();
+    private final Set<Chave> vistos = new HashSet<>();
+
+    private Diagnostico ultimoLexico;   // candidato a agrupamento
+    private boolean limiteAtingido = false;
+
+    public DiagnosticSink() {
+        this(0);
+    }
+
+    public DiagnosticSink(int maxErros) {
+        this.maxErros = Math.max(0, maxErros);
+    }
+
+    /** Registra um diagnóstico. Retorna false se foi descartado (duplicado ou limite). */
+    public boolean relatar(Diagnostico d) {
+        return relatar(d, false);
+    }
+
+    /**
+     * Registra um diagnóstico; com {@code consecutivo} = true e um erro léxico de
+     * mesmo código logo antes (sem token válido entre eles), apenas incrementa a
+     * contagem do anterior.
+     */
+    public boolean relatar(Diagnostico d, boolean consecutivo) {
+        if (d == null || limiteAtingido) return false;
+
+        if (consecutivo
+                && d.getTipo() == Diagnostico.Tipo.LEXICO
+                && ultimoLexico != null
+                && ultimoLexico.getCodigo() == d.getCodigo()) {
+            ultimoLexico.registrarOcorrencia();
+            return true;
+        }
+
+        Chave k = new Chave(d.getTipo(), d.getCodigo(), d.getLinha(), d.getColuna());
+        if (!vistos.add(k)) return false;
+
+        diagnosticos.add(d);
+        if (d.getTipo() == Diagnostico.Tipo.LEXICO) ultimoLexico = d;
+
+        if (maxErros > 0 && diagnosticos.size() >= maxErros) {
+            limiteAtingido = true;
+        }
+        return true;
+    }
+
+    /** true quando --max-errors foi atingido: as próximas fases devem ser puladas. */
+    public boolean limiteAtingido() { return limiteAtingido; }
+
+    public int getMaxErros() { return maxErros; }
+
+    public int total() { return diagnosticos.size(); }
+
+    public boolean vazio() { return diagnosticos.isEmpty(); }
+
+    public int contar(Diagnostico.Tipo tipo) {
+        int c = 0;
+        for (Diagnostico d : diagnosticos) {
+            if (d.getTipo() == tipo) c++;
+        }
+        return c;
+    }
+
+    /** Diagnósticos únicos, na ordem em que foram relatados. */
+    public List<Diagnostico> getDiagnosticos() {
+        return Collections.unmodifiableList(diagnosticos);
+    }
+}
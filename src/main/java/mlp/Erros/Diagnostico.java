@@ -9,6 +9,7 @@ public class Diagnostico {
     private final int linha;         // 1-based
     private final int coluna;        // 1-based
     private final String lexema;     // opcional
+    private int ocorrencias = 1;     // > 1 quando erros léxicos consecutivos são agrupados
 
     public Diagnostico(Tipo tipo, int codigo, String mensagem, int linha, int coluna, String lexema) {
         this.tipo = tipo;
@@ -25,11 +26,15 @@ public class Diagnostico {
     public int getLinha()    { return linha; }
     public int getColuna()   { return coluna; }
     public String getLexema(){ return lexema; }
+    public int getOcorrencias() { return ocorrencias; }
+
+    void registrarOcorrencia() { ocorrencias++; }
 
     @Override
     public String toString() {
         String lx = (lexema == null ? "" : " (lexema='" + lexema + "')");
+        String rep = (ocorrencias > 1 ? " [x" + ocorrencias + " consecutivos]" : "");
         return "[" + tipo + "] [" + linha + ":" + coluna + "] COD." +
-               String.format("%02d", codigo) + " - " + mensagem + lx;
+               String.format("%02d", codigo) + " - " + mensagem + lx + rep;
     }
 }
@@ -1,10 +1,10 @@
 package mlp.Lexico;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import mlp.Erros.DiagnosticSink;
 import mlp.Erros.Diagnostico;
 import mlp.Erros.Diagnostico.Tipo;
 
@@ -18,6 +18,10 @@ import mlp.Erros.Diagnostico.Tipo;
  *  0102 - número real inválido (ex.: "5.", ".5")
  *  0103 - identificador malformado (ex.: contém '_' na MLP atual)
  *  0104 - identificador excede tamanho máximo (10 caracteres)
+ *  0105 - número inteiro fora do intervalo (maior que 9223372036854775807)
+ *
+ * Erros 0101 seguidos (sem token válido entre eles) são agrupados no
+ * DiagnosticSink em um único diagnóstico com contagem.
  */
 public class AnalisadorLexico {
 
@@ -26,6 +30,7 @@ public class AnalisadorLexico {
     private static final int LEX_REAL_INVALIDO        = 102; // 0102
     private static final int LEX_IDENT_MALFORMADO     = 103; // 0103
     private static final int LEX_IDENT_TAM_EXCEDIDO   = 104; // 0104
+    private static final int LEX_INT_FORA_INTERVALO   = 105; // 0105
 
     // ------------------- Estado -------------------
     private final String fonte;
@@ -34,19 +39,35 @@ public class AnalisadorLexico {
     private int linha = 1;
     private int coluna = 1;
 
-    private final List<Diagnostico> diagnosticos = new ArrayList<>();
+    private final DiagnosticSink sink;
+    private boolean ultimoInvalido = false; // último token devolvido foi INVALIDO
 
     public AnalisadorLexico(String fonte) {
+        this(fonte, new DiagnosticSink());
+    }
+
+    public AnalisadorLexico(String fonte, DiagnosticSink sink) {
         this.fonte = (fonte == null) ? "" : fonte;
         this.n = this.fonte.length();
+        this.sink = sink;
     }
 
     public List<Diagnostico> getDiagnosticos() {
-        return diagnosticos;
+        return sink.getDiagnosticos();
+    }
+
+    public DiagnosticSink getSink() {
+        return sink;
     }
 
     // ------------------- API -------------------
     public Token proximo() {
+        Token t = lerToken();
+        ultimoInvalido = (t.getTipo() == TokenTipo.INVALIDO);
+        return t;
+    }
+
+    private Token lerToken() {
         consumirEspacos();
 
         if (fim()) return new Token(TokenTipo.EOF, "<eof>", linha, coluna);
@@ -233,7 +254,10 @@ public class AnalisadorLexico {
                 advance();
                 return new Token(TokenTipo.INVALIDO, String.valueOf(peek()), lin, col);
             }
-            // inteiro válido
+            // inteiro: precisa caber em 64 bits (o TAC o executa como long)
+            if (!cabeEmLong(lex)) {
+                addDiagLex(LEX_INT_FORA_INTERVALO, "número inteiro fora do intervalo", lex);
+            }
             return new Token(TokenTipo.NUM_INT, lex, lin, col);
         }
 
@@ -249,6 +273,15 @@ public class AnalisadorLexico {
     }
 
     // ------------------- Utilidades -------------------
+    private static boolean cabeEmLong(String digitos) {
+        try {
+            Long.parseLong(digitos);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
     private void consumirEspacos() {
         while (!fim()) {
             char c = peek();
@@ -271,7 +304,7 @@ public class AnalisadorLexico {
     }
 
     private void addDiag(Tipo t, int codigo, String msg, int lin, int col, String lex) {
-        diagnosticos.add(new Diagnostico(t, codigo, msg, lin, col, lex));
+        sink.relatar(new Diagnostico(t, codigo, msg, lin, col, lex), ultimoInvalido);
     }
 
     private boolean match(char esperado) {
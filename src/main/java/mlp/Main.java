@@ -8,22 +8,114 @@ import java.util.List;
 import mlp.Lexico.AnalisadorLexico;
 import mlp.Lexico.Token;
 import mlp.Lexico.TokenTipo;
+import mlp.Erros.DiagnosticSink;
 import mlp.Erros.Diagnostico;
 import mlp.Sintatico.AnalisadorSintatico;
 import mlp.Semantico.AnalisadorSemantico;
 import mlp.ast.AstNode;
 import mlp.tac.GeradorTAC;
 import mlp.tac.InterpretadorTAC;
+import mlp.tac.Motor;
+import mlp.tac.EmissorC;
+import mlp.tac.MotorBytecode;
+import mlp.tac.MotorFechamentos;
+import mlp.tac.MotorNativo;
+import mlp.tac.Perfil;
 import mlp.tac.TacInstr;
+import mlp.tac.opt.AvaliacaoCompleta;
+import mlp.tac.opt.DesenrolamentoLacos;
+import mlp.tac.opt.GerenciadorPasses;
+import mlp.tac.opt.LayoutPorPerfil;
 import mlp.relato.NarratedPrinter;
 
 public class Main {
 
+    /** Limite de diagnósticos por arquivo (--max-errors N); 0 = sem limite. */
+    private static int maxErros = 0;
+
+    /** Nível de otimização do TAC (-O0, -O1, -O2). */
+    private static int nivelOtimizacao = 2;
+
+    /** --stats: imprime tempo e tamanho do código por passe. */
+    private static boolean estatisticas = false;
+
+    /** --ponto-fixo: repete o pipeline de otimização enquanto o código mudar. */
+    private static boolean pontoFixo = false;
+
+    /** --desenrolar K: cópias do corpo por teste no desenrolamento de laços (-O2). */
+    private static int fatorDesenrolamento = DesenrolamentoLacos.FATOR_PADRAO;
+
+    /** --coletar-perfil: executa contando desvios e grava <fonte>.perfil. */
+    private static boolean coletarPerfil = false;
+
+    /** --usar-perfil: lê <fonte>.perfil e reordena os blocos pelo caminho quente. */
+    private static boolean usarPerfil = false;
+
+    /** --avaliar[=N]: executa o programa na compilação (até N instruções) e deixa só a saída; 0 = desligado. */
+    private static long limiteAvaliacao = 0;
+
+    /** --motor=NOME: como o TAC final é executado (interpretador | fechamentos | bytecode | nativo). */
+    private static String motor = "interpretador";
+
+    /** --emitir-c: grava o TAC final traduzido para C99 em <fonte sem .mlp>.c. */
+    private static boolean emitirC = false;
+
     public static void main(String[] args) throws Exception {
+        List<String> posicionais = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String a = args[i];
+            if (a.equals("--max-errors") && i + 1 < args.length) {
+                maxErros = lerInteiro(a, args[++i]);
+            } else if (a.startsWith("--max-errors=")) {
+                maxErros = lerInteiro("--max-errors", a.substring("--max-errors=".length()));
+            } else if (a.matches("-O[0-2]")) {
+                nivelOtimizacao = a.charAt(2) - '0';
+            } else if (a.equals("--stats")) {
+                estatisticas = true;
+            } else if (a.equals("--ponto-fixo")) {
+                pontoFixo = true;
+            } else if (a.equals("--coletar-perfil")) {
+                coletarPerfil = true;
+            } else if (a.equals("--usar-perfil")) {
+                usarPerfil = true;
+            } else if (a.equals("--desenrolar") && i + 1 < args.length) {
+                fatorDesenrolamento = lerInteiro(a, args[++i]);
+            } else if (a.startsWith("--desenrolar=")) {
+                fatorDesenrolamento = lerInteiro("--desenrolar", a.substring("--desenrolar=".length()));
+            } else if (a.equals("--avaliar")) {
+                limiteAvaliacao = AvaliacaoCompleta.LIMITE_PADRAO;
+            } else if (a.startsWith("--avaliar=")) {
+                limiteAvaliacao = lerInteiro("--avaliar", a.substring("--avaliar=".length()));
+            } else if (a.equals("--emitir-c")) {
+                emitirC = true;
+            } else if (a.startsWith("--motor=")) {
+                motor = a.substring("--motor=".length());
+                if (!List.of("interpretador", "fechamentos", "bytecode", "nativo").contains(motor)) {
+                    System.err.println("Motor desconhecido: " + motor);
+                    System.exit(1);
+                }
+            } else {
+                posicionais.add(a);
+            }
+        }
+        args = posicionais.toArray(new String[0]);
+
         if (args.length == 0) {
             System.err.println("Uso:");
-            System.err.println("  java -jar compilador-mlp.jar <arquivo.mlp>");
-            System.err.println("  java -jar compilador-mlp.jar --run-examples   (roda todos em ./examples)");
+            System.err.println("  java -jar compilador-mlp.jar [opcoes] <arquivo.mlp>");
+            System.err.println("  java -jar compilador-mlp.jar [opcoes] --run-examples   (roda todos em ./examples)");
+            System.err.println("Opcoes:");
+            System.err.println("  --max-errors N   para apos N diagnosticos (padrao: sem limite)");
+            System.err.println("  -O0 | -O1 | -O2  nivel de otimizacao do TAC (padrao: -O2)");
+            System.err.println("  --ponto-fixo     repete as otimizacoes enquanto o codigo mudar");
+            System.err.println("  --desenrolar K   copias do corpo por teste ao desenrolar lacos (padrao: 4; 1 desliga)");
+            System.err.println("  --avaliar[=N]    executa o programa na compilacao (ate N instrucoes, padrao: 1000000)");
+            System.err.println("                   e, se terminar, gera so a sequencia de valores escritos");
+            System.err.println("  --motor=NOME     executa com interpretador (padrao), fechamentos, bytecode ou nativo (via cc)");
+            System.err.println("  --emitir-c       grava o TAC otimizado como programa C99 em <arquivo>.c");
+            System.err.println("  --stats          mostra tempo e instrucoes antes/depois de cada passe");
+            System.err.println("  --coletar-perfil conta desvios e voltas na execucao e grava <arquivo>.perfil");
+            System.err.println("  --usar-perfil    reordena blocos e desvios segundo <arquivo>.perfil");
             System.exit(1);
         }
 
@@ -76,29 +168,36 @@ public class Main {
         System.out.println("ARQUIVO: " + path);
         System.out.println("==================================================");
 
-        String source = Files.readString(path, StandardCharsets.UTF_8);
+        // decodificação tolerante: bytes inválidos viram U+FFFD (e depois erros 0101)
+        String source = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+
+        DiagnosticSink sink = new DiagnosticSink(maxErros);
 
         // 1) LÉXICO (coleta de tokens para relatório)
-        AnalisadorLexico lxTokens = new AnalisadorLexico(source);
+        AnalisadorLexico lxTokens = new AnalisadorLexico(source, sink);
         List<Token> tokens = new ArrayList<>();
         while (true) {
             Token t = lxTokens.proximo();
             tokens.add(t);
             if (t.getTipo() == TokenTipo.EOF) break;
         }
-        List<Diagnostico> diagsLexColeta = lxTokens.getDiagnosticos();
 
-        // 2) SINTÁTICO (novo léxico para o parser)
-        AnalisadorLexico lx = new AnalisadorLexico(source);
-        AnalisadorSintatico ps = new AnalisadorSintatico(lx);
-        AstNode programa = ps.parsePrograma();
-        List<Diagnostico> diagsLex = lx.getDiagnosticos();    // do parsing real
-        List<Diagnostico> diagsSint = ps.getDiagnosticos();
+        AstNode programa = null;
+        AnalisadorSemantico sem = null;
 
-        // 3) SEMÂNTICO
-        AnalisadorSemantico sem = new AnalisadorSemantico();
-        sem.analisar(programa);
-        List<Diagnostico> diagsSem = sem.getDiagnosticos();
+        if (!sink.limiteAtingido()) {
+            // 2) SINTÁTICO (novo léxico para o parser; os erros léxicos já foram
+            //    coletados na passada acima, então os deste léxico são descartados)
+            AnalisadorLexico lx = new AnalisadorLexico(source, new DiagnosticSink());
+            AnalisadorSintatico ps = new AnalisadorSintatico(lx, sink);
+            programa = ps.parsePrograma();
+        }
+
+        if (programa != null && !sink.limiteAtingido()) {
+            // 3) SEMÂNTICO
+            sem = new AnalisadorSemantico(sink);
+            sem.analisar(programa);
+        }
 
         NarratedPrinter np = new NarratedPrinter(System.out);
 
@@ -121,7 +220,7 @@ public class Main {
 
         // TABELA DE SÍMBOLOS
         System.out.println(">>> TABELA DE SIMBOLOS");
-        if (sem.getTabela() != null && sem.getTabela().todas() != null && !sem.getTabela().todas().isEmpty()) {
+        if (sem != null && sem.getTabela() != null && sem.getTabela().todas() != null && !sem.getTabela().todas().isEmpty()) {
             for (var e : sem.getTabela().todas().values()) {
                 System.out.printf("  %-12s : %-7s @%d:%d\n", e.nome, e.tipo, e.linha, e.coluna);
             }
@@ -129,40 +228,22 @@ public class Main {
             System.out.println("  (nao gerada devido a erros lexico/sintaticos ou tabela vazia)");
         }
 
-        // DIAGNÓSTICOS
-        List<Diagnostico> all = new ArrayList<>();
-        all.addAll(diagsLexColeta);
-        all.addAll(diagsLex);
-        all.addAll(diagsSint);
-        all.addAll(diagsSem);
-
-        // remover duplicados (mesmo texto de diagnóstico)
-        List<Diagnostico> allUnique = new ArrayList<>();
-        java.util.Set<String> seen = new java.util.LinkedHashSet<>();
-        for (Diagnostico d : all) {
-            String key = d.toString();
-            if (seen.add(key)) {
-                allUnique.add(d);
-            }
-        }
-
+        // DIAGNÓSTICOS (já sem duplicados: o sink compara tipo/código/posição)
         System.out.println(">>> DIAGNOSTICOS");
-        if (allUnique.isEmpty()) {
+        if (sink.vazio()) {
             System.out.println("  (nenhum)");
         } else {
-            for (Diagnostico d : allUnique) {
+            for (Diagnostico d : sink.getDiagnosticos()) {
                 System.out.println("  " + d);
             }
-        }
-
-        int cLex = 0, cSin = 0, cSem = 0;
-        for (Diagnostico d : allUnique) {
-            switch (d.getTipo()) {
-                case LEXICO -> cLex++;
-                case SINTATICO -> cSin++;
-                case SEMANTICO -> cSem++;
+            if (sink.limiteAtingido()) {
+                System.out.println("  (limite de " + sink.getMaxErros() + " erros atingido; fases restantes ignoradas)");
             }
         }
+
+        int cLex = sink.contar(Diagnostico.Tipo.LEXICO);
+        int cSin = sink.contar(Diagnostico.Tipo.SINTATICO);
+        int cSem = sink.contar(Diagnostico.Tipo.SEMANTICO);
         int total = cLex + cSin + cSem;
 
         System.out.println(">>> RESUMO");
@@ -174,14 +255,67 @@ public class Main {
             GeradorTAC gerador = new GeradorTAC();
             List<TacInstr> tac = gerador.gerar(programa);
 
+            for (String var : gerador.getVariaveisZeradas()) {
+                System.out.println("  aviso: '" + var + "' pode ser lida antes de receber valor; inicializada com 0");
+            }
+
+            // Otimizações sobre o TAC
+            GerenciadorPasses passes = GerenciadorPasses.paraNivel(
+                    nivelOtimizacao, gerador.getVariaveis(), gerador.getVariaveisInteiras(),
+                    fatorDesenrolamento);
+            passes.setPontoFixo(pontoFixo);
+            if (limiteAvaliacao > 0) passes.adicionar(new AvaliacaoCompleta(limiteAvaliacao));
+
+            Path arquivoPerfil = Paths.get(path + ".perfil");
+            LayoutPorPerfil layout = null;
+            if (usarPerfil && !coletarPerfil) {
+                if (Files.exists(arquivoPerfil)) {
+                    layout = new LayoutPorPerfil(Perfil.carregar(arquivoPerfil));
+                    passes.adicionar(layout);
+                } else {
+                    System.out.println("  aviso: perfil " + arquivoPerfil + " não encontrado; compilando sem perfil");
+                }
+            }
+            tac = passes.executar(tac);
+            if (layout != null && !layout.foiAplicado()) {
+                System.out.println("  aviso: perfil " + arquivoPerfil + " é de outra versão do código; ignorado");
+            }
+
             // Imprime TAC comentado
             np.printTacWithNarration(tac);
 
+            if (estatisticas) {
+                System.out.println(">>> OTIMIZACOES (-O" + nivelOtimizacao + ")");
+                passes.imprimirEstatisticas(System.out);
+            }
+
+            if (emitirC) {
+                String nome = path.getFileName().toString().replaceFirst("\\.mlp$", "");
+                Path arquivoC = path.resolveSibling(nome + ".c");
+                Files.writeString(arquivoC, EmissorC.emitir(tac), StandardCharsets.UTF_8);
+                System.err.println("programa C gravado em " + arquivoC);
+            }
+
             // Executa o código TAC
             System.out.println("SAIDA DO PROGRAMA");
             try {
-            InterpretadorTAC interpretador = new InterpretadorTAC();
-            interpretador.executar(tac);
+                if (coletarPerfil) {
+                    // o perfil só é coletado pelo interpretador, qualquer que seja o --motor
+                    Perfil perfil = Perfil.para(tac);
+                    new InterpretadorTAC().executar(tac, perfil);
+                    perfil.salvar(arquivoPerfil, tac);
+                    System.err.println("perfil gravado em " + arquivoPerfil);
+                } else {
+                    Motor m = switch (motor) {
+                        case "fechamentos" -> new MotorFechamentos();
+                        case "bytecode" -> new MotorBytecode();
+                        case "nativo" -> new MotorNativo();
+                        default -> new InterpretadorTAC();
+                    };
+                    m.executar(tac);
+                }
+            } catch (ArithmeticException e) {
+                System.out.println("  erro de execução: divisão inteira por zero");
             } catch (Exception e) {
                 System.err.println("deu erro aqui:");
                 e.printStackTrace();
@@ -193,6 +327,16 @@ public class Main {
 
     // -------- utilidades --------
 
+    private static int lerInteiro(String opcao, String valor) {
+        try {
+            return Integer.parseInt(valor.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Valor inválido para " + opcao + ": " + valor);
+            System.exit(1);
+            return 0;
+        }
+    }
+
     private static boolean isPalavraReservada(TokenTipo tp) {
         return switch (tp) {
             case KW_SE, KW_ENTAO, KW_SENAO, KW_ENQUANTO, KW_ESCREVA,
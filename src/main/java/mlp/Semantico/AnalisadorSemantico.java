@@ -1,8 +1,8 @@
 package mlp.Semantico;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import mlp.Erros.DiagnosticSink;
 import mlp.Erros.Diagnostico;
 import mlp.Erros.Diagnostico.Tipo;
 import mlp.Lexico.Token;
@@ -20,10 +20,18 @@ public class AnalisadorSemantico {
     private static final int SEM_PROFUNDIDADE_EXCEDIDA = 2005; // NOVO
 
     private final TabelaSimbolos ts = new TabelaSimbolos();
-    private final List<Diagnostico> diagnosticos = new ArrayList<>();
+    private final DiagnosticSink sink;
+
+    public AnalisadorSemantico() {
+        this(new DiagnosticSink());
+    }
+
+    public AnalisadorSemantico(DiagnosticSink sink) {
+        this.sink = sink;
+    }
 
     public TabelaSimbolos getTabela() { return ts; }
-    public List<Diagnostico> getDiagnosticos() { return diagnosticos; }
+    public List<Diagnostico> getDiagnosticos() { return sink.getDiagnosticos(); }
 
     /** Dispara a análise a partir do nó Programa. */
     public void analisar(AstNode programa) {
@@ -65,7 +73,7 @@ public class AnalisadorSemantico {
                 String nome = tk.getLexema();
 
                 if (!ts.declarar(nome, tipo, tk.getLinha(), tk.getColuna())) {
-                    diagnosticos.add(new Diagnostico(
+                    sink.relatar(new Diagnostico(
                         Tipo.SEMANTICO, SEM_VAR_REDECLARADA,
                         "variável já declarada: " + nome,
                         tk.getLinha(), tk.getColuna(), nome
@@ -112,7 +120,7 @@ public class AnalisadorSemantico {
 
         // Compatibilidade: igual ou (INT -> REAL)
         if (!compatAtrib(tDest, tExpr)) {
-            diagnosticos.add(new Diagnostico(
+            sink.relatar(new Diagnostico(
                 Tipo.SEMANTICO, SEM_TIPO_INCOMPATIVEL,
                 "tipos incompatíveis na atribuição: " + tDest + " = " + tExpr,
                 (idTk != null ? idTk.getLinha() : 0),
@@ -126,7 +134,7 @@ public class AnalisadorSemantico {
         // Checa profundidade máxima (10) apenas para comandos de controle
         if (profundidade > 10) {
             Token t = n.getToken();
-            diagnosticos.add(new Diagnostico(
+            sink.relatar(new Diagnostico(
                 Tipo.SEMANTICO, SEM_PROFUNDIDADE_EXCEDIDA,
                 "profundidade máxima de comandos (10) excedida",
                 (t != null ? t.getLinha() : 0),
@@ -146,7 +154,7 @@ public class AnalisadorSemantico {
         TipoSimples tCond = tipoCond(cond);
         if (tCond != TipoSimples.BOOL && tCond != TipoSimples.ERRO) {
             Token t = cond.getToken();
-            diagnosticos.add(new Diagnostico(
+            sink.relatar(new Diagnostico(
                 Tipo.SEMANTICO, SEM_COND_NAO_BOLEANA,
                 "condição de 'se' deve ser booleana",
                 (t != null ? t.getLinha() : 0),
@@ -173,7 +181,7 @@ public class AnalisadorSemantico {
         // Checa profundidade máxima (10) apenas para comandos de controle
         if (profundidade > 10) {
             Token t = n.getToken();
-            diagnosticos.add(new Diagnostico(
+            sink.relatar(new Diagnostico(
                 Tipo.SEMANTICO, SEM_PROFUNDIDADE_EXCEDIDA,
                 "profundidade máxima de comandos (10) excedida",
                 (t != null ? t.getLinha() : 0),
@@ -191,7 +199,7 @@ public class AnalisadorSemantico {
         TipoSimples tCond = tipoCond(cond);
         if (tCond != TipoSimples.BOOL && tCond != TipoSimples.ERRO) {
             Token t = cond.getToken();
-            diagnosticos.add(new Diagnostico(
+            sink.relatar(new Diagnostico(
                 Tipo.SEMANTICO, SEM_COND_NAO_BOLEANA,
                 "condição de 'enquanto' deve ser booleana",
                 (t != null ? t.getLinha() : 0),
@@ -254,7 +262,7 @@ public class AnalisadorSemantico {
                 TipoSimples b = tipoExpr(e.getFilhos().get(1));
                 if (a != TipoSimples.INT || b != TipoSimples.INT) {
                     Token t = e.getToken();
-                    diagnosticos.add(new Diagnostico(
+                    sink.relatar(new Diagnostico(
                         Tipo.SEMANTICO, SEM_TIPO_INCOMPATIVEL,
                         "RESTO requer operandos inteiros",
                         (t != null ? t.getLinha() : 0),
@@ -269,7 +277,7 @@ public class AnalisadorSemantico {
                 // Nó lógico/relacional indevido dentro de expressão numérica
                 if ("Rel".equals(k) || "Nao".equals(k) || "OpE".equals(k) || "OpOU".equals(k)) {
                     Token t = e.getToken();
-                    diagnosticos.add(new Diagnostico(
+                    sink.relatar(new Diagnostico(
                         Tipo.SEMANTICO, SEM_TIPO_INCOMPATIVEL,
                         "expressão numérica inválida (nó lógico/relacional em expressão)",
                         (t != null ? t.getLinha() : 0),
@@ -335,7 +343,7 @@ public class AnalisadorSemantico {
         String nome = idToken.getLexema();
         TabelaSimbolos.Entrada e = ts.obter(nome);
         if (e == null) {
-            diagnosticos.add(new Diagnostico(
+            sink.relatar(new Diagnostico(
                 Tipo.SEMANTICO, SEM_VAR_NAO_DECL,
                 "variável não declarada: " + nome,
                 idToken.getLinha(), idToken.getColuna(), nome
@@ -352,7 +360,7 @@ public class AnalisadorSemantico {
     private TipoSimples promoverSoma(TipoSimples a, TipoSimples b, AstNode no) {
         if (!ehNumerico(a) || !ehNumerico(b)) {
             Token t = no.getToken();
-            diagnosticos.add(new Diagnostico(
+            sink.relatar(new Diagnostico(
                 Tipo.SEMANTICO, SEM_TIPO_INCOMPATIVEL,
                 "soma requer operandos numéricos",
                 (t != null ? t.getLinha() : 0),
@@ -367,7 +375,7 @@ public class AnalisadorSemantico {
     private TipoSimples promoverSubtracao(TipoSimples a, TipoSimples b, AstNode no) {
         if (!ehNumerico(a) || !ehNumerico(b)) {
             Token t = no.getToken();
-            diagnosticos.add(new Diagnostico(
+            sink.relatar(new Diagnostico(
                 Tipo.SEMANTICO, SEM_TIPO_INCOMPATIVEL,
                 "soma requer operandos numéricos",
                 (t != null ? t.getLinha() : 0),
@@ -382,7 +390,7 @@ public class AnalisadorSemantico {
     private TipoSimples promoverMulDiv(TipoSimples a, TipoSimples b, AstNode no) {
         if (!ehNumerico(a) || !ehNumerico(b)) {
             Token t = no.getToken();
-            diagnosticos.add(new Diagnostico(
+            sink.relatar(new Diagnostico(
                 Tipo.SEMANTICO, SEM_TIPO_INCOMPATIVEL,
                 "multiplicação/divisão requerem operandos numéricos",
                 (t != null ? t.getLinha() : 0),
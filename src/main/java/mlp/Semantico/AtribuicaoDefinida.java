@@ -0,0 +1,110 @@
+package mlp.Semantico;
+
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import mlp.Lexico.Token;
+import mlp.ast.AstNode;
+
+/**
+ * Análise de atribuição definida sobre a AST.
+ *
+ * Percorre os comandos mantendo o conjunto de variáveis que certamente já
+ * receberam valor em cada ponto:
+ *  - CmdAtrib : lê a expressão e depois acrescenta o destino;
+ *  - CmdSe    : interseção dos conjuntos de saída do 'entao' e do 'senao'
+ *               (sem 'senao', o ramo falso não atribui nada);
+ *  - CmdEnquanto: o corpo pode não executar, então a saída é a entrada.
+ *
+ * O resultado são as variáveis que podem ser lidas antes de qualquer
+ * atribuição. O GeradorTAC inicializa só essas com 0, e assim toda leitura
+ * de variável no TAC é segura (o interpretador não precisa testar null).
+ */
+public class AtribuicaoDefinida {
+
+    private final Set<String> possivelmenteNaoAtribuidas = new LinkedHashSet<>();
+
+    /** Retorna as variáveis lidas em algum ponto onde podem não ter valor. */
+    public Set<String> analisar(AstNode programa) {
+        possivelmenteNaoAtribuidas.clear();
+        if (programa == null) return possivelmenteNaoAtribuidas;
+
+        Set<String> atribuidas = new HashSet<>();
+        for (AstNode filho : programa.getFilhos()) {
+            atribuidas = comando(filho, atribuidas);
+        }
+        return possivelmenteNaoAtribuidas;
+    }
+
+    // ---------------- Comandos ----------------
+
+    private Set<String> comando(AstNode cmd, Set<String> entrada) {
+        switch (cmd.getKind()) {
+            case "CmdAtrib" -> {
+                if (cmd.getFilhos().size() < 2) return entrada;
+                leituras(cmd.getFilhos().get(1), entrada);
+
+                AstNode lvalue = cmd.getFilhos().get(0);
+                if (lvalue.getFilhos().isEmpty()) return entrada;
+                Token idTk = lvalue.getFilhos().get(0).getToken();
+                if (idTk == null) return entrada;
+
+                Set<String> saida = new HashSet<>(entrada);
+                saida.add(idTk.getLexema());
+                return saida;
+            }
+            case "CmdSe" -> {
+                if (cmd.getFilhos().isEmpty()) return entrada;
+                leituras(cmd.getFilhos().get(0), entrada);
+
+                Set<String> thenSaida = (cmd.getFilhos().size() > 1)
+                        ? bloco(cmd.getFilhos().get(1), entrada) : entrada;
+                Set<String> elseSaida = (cmd.getFilhos().size() > 2)
+                        ? bloco(cmd.getFilhos().get(2), entrada) : entrada;
+
+                Set<String> saida = new HashSet<>(thenSaida);
+                saida.retainAll(elseSaida);
+                return saida;
+            }
+            case "CmdEnquanto" -> {
+                if (cmd.getFilhos().isEmpty()) return entrada;
+                leituras(cmd.getFilhos().get(0), entrada);
+                // a 1a iteração vê exatamente 'entrada' (as demais veem um superconjunto)
+                if (cmd.getFilhos().size() > 1) bloco(cmd.getFilhos().get(1), entrada);
+                return entrada;
+            }
+            case "CmdEscreva" -> {
+                if (!cmd.getFilhos().isEmpty()) leituras(cmd.getFilhos().get(0), entrada);
+                return entrada;
+            }
+            default -> {
+                return entrada; // Decl e demais: não leem nem atribuem
+            }
+        }
+    }
+
+    private Set<String> bloco(AstNode bloco, Set<String> entrada) {
+        Set<String> atual = entrada;
+        for (AstNode cmd : bloco.getFilhos()) {
+            atual = comando(cmd, atual);
+        }
+        return atual;
+    }
+
+    // ---------------- Expressões / condições ----------------
+
+    private void leituras(AstNode e, Set<String> atribuidas) {
+        if (e == null) return;
+        if ("Ident".equals(e.getKind())) {
+            Token tk = e.getToken();
+            if (tk != null && !atribuidas.contains(tk.getLexema())) {
+                possivelmenteNaoAtribuidas.add(tk.getLexema());
+            }
+            return;
+        }
+        for (AstNode f : e.getFilhos()) {
+            leituras(f, atribuidas);
+        }
+    }
+}
@@ -1,8 +1,8 @@
 package mlp.Sintatico;
 
-import java.util.ArrayList;
 import java.util.List;
 
+import mlp.Erros.DiagnosticSink;
 import mlp.Erros.Diagnostico;
 import mlp.Erros.Diagnostico.Tipo;
 import mlp.Lexico.AnalisadorLexico;
@@ -17,16 +17,21 @@ import mlp.ast.AstNode;
 public class AnalisadorSintatico {
 
     private final AnalisadorLexico lx;
-    private final List<Diagnostico> diagnosticos = new ArrayList<>();
+    private final DiagnosticSink sink;
     private Token atual;
 
     public AnalisadorSintatico(AnalisadorLexico lx) {
+        this(lx, lx.getSink());
+    }
+
+    public AnalisadorSintatico(AnalisadorLexico lx, DiagnosticSink sink) {
         this.lx = lx;
+        this.sink = sink;
         this.atual = lx.proximo();
     }
 
     public List<Diagnostico> getDiagnosticos() {
-        return diagnosticos;
+        return sink.getDiagnosticos();
     }
 
     // ---------- Núcleo utilitário ----------
@@ -50,7 +55,7 @@ public class AnalisadorSintatico {
     }
 
     private void emitir(int codigo, String msg, Token t) {
-        diagnosticos.add(new Diagnostico(
+        sink.relatar(new Diagnostico(
                 Tipo.SINTATICO, codigo, msg,
                 t != null ? t.getLinha() : 0,
                 t != null ? t.getColuna() : 0,
@@ -116,6 +121,9 @@ public class AnalisadorSintatico {
         while (atual.getTipo() != TokenTipo.END
             && atual.getTipo() != TokenTipo.EOF) {
 
+            // --max-errors atingido: não adianta continuar analisando
+            if (sink.limiteAtingido()) return prog;
+
             if (isInicioDecl()) {
                 AstNode d = parseDecl();
                 if (d != null) prog.addFilho(d);
@@ -218,7 +218,10 @@ public class NarratedPrinter {
 
         if (upper.startsWith("ADD "))  return explicarBinaria(raw, "soma");
         if (upper.startsWith("SUB "))  return explicarBinaria(raw, "subtração");
+        if (upper.startsWith("ADDI ")) return explicarBinaria(raw, "soma");
+        if (upper.startsWith("SUBI ")) return explicarBinaria(raw, "subtração");
         if (upper.startsWith("MUL "))  return explicarBinaria(raw, "multiplicação");
+        if (upper.startsWith("MULI ")) return explicarBinaria(raw, "multiplicação");
         if (upper.startsWith("DIV "))  return explicarBinaria(raw, "divisão");
         if (upper.startsWith("REM "))  return explicarBinaria(raw, "resto (mod)");
 
@@ -228,6 +231,44 @@ public class NarratedPrinter {
         if (upper.startsWith("CMPLE ")) return explicarCmp(raw, "<=");
         if (upper.startsWith("CMPGE ")) return explicarCmp(raw, ">=");
         if (upper.startsWith("CMPNE ")) return explicarCmp(raw, "!=");
+        if (upper.startsWith("CMPLTI ")) return explicarCmp(raw, "<");
+        if (upper.startsWith("CMPGTI ")) return explicarCmp(raw, ">");
+        if (upper.startsWith("CMPEQI ")) return explicarCmp(raw, "==");
+        if (upper.startsWith("CMPLEI ")) return explicarCmp(raw, "<=");
+        if (upper.startsWith("CMPGEI ")) return explicarCmp(raw, ">=");
+        if (upper.startsWith("CMPNEI ")) return explicarCmp(raw, "!=");
+
+        if (upper.startsWith("IADD "))  return explicarBinaria(raw, "soma inteira");
+        if (upper.startsWith("ISUB "))  return explicarBinaria(raw, "subtração inteira");
+        if (upper.startsWith("IADDI ")) return explicarBinaria(raw, "soma inteira");
+        if (upper.startsWith("ISUBI ")) return explicarBinaria(raw, "subtração inteira");
+        if (upper.startsWith("IMUL "))  return explicarBinaria(raw, "multiplicação inteira");
+        if (upper.startsWith("IMULI ")) return explicarBinaria(raw, "multiplicação inteira");
+        if (upper.startsWith("IDIV "))  return explicarBinaria(raw, "divisão inteira");
+        if (upper.startsWith("IREM "))  return explicarBinaria(raw, "resto inteiro (mod)");
+
+        if (upper.startsWith("ICMPLT ")) return explicarCmp(raw, "<");
+        if (upper.startsWith("ICMPGT ")) return explicarCmp(raw, ">");
+        if (upper.startsWith("ICMPEQ ")) return explicarCmp(raw, "==");
+        if (upper.startsWith("ICMPLE ")) return explicarCmp(raw, "<=");
+        if (upper.startsWith("ICMPGE ")) return explicarCmp(raw, ">=");
+        if (upper.startsWith("ICMPNE ")) return explicarCmp(raw, "!=");
+        if (upper.startsWith("ICMPLTI ")) return explicarCmp(raw, "<");
+        if (upper.startsWith("ICMPGTI ")) return explicarCmp(raw, ">");
+        if (upper.startsWith("ICMPEQI ")) return explicarCmp(raw, "==");
+        if (upper.startsWith("ICMPLEI ")) return explicarCmp(raw, "<=");
+        if (upper.startsWith("ICMPGEI ")) return explicarCmp(raw, ">=");
+        if (upper.startsWith("ICMPNEI ")) return explicarCmp(raw, "!=");
+
+        if (upper.startsWith("ITOR ")) {
+            String[] parts = depoisDoEspaco(raw).split(",");
+            if (parts.length >= 2) {
+                String dst = parts[0].trim();
+                String src = parts[1].trim();
+                return "Converte o inteiro " + src + " para real em " + dst + ".";
+            }
+            return "Converte um inteiro para real.";
+        }
 
         if (upper.startsWith("JMPFALSE ")) {
             String[] parts = depoisDoEspaco(raw).split(",");
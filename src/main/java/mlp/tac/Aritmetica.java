@@ -0,0 +1,129 @@
+package mlp.tac;
+
+/**
+ * Semântica das operações aritméticas/relacionais do TAC, compartilhada
+ * entre o interpretador e os passes que avaliam constantes em tempo de
+ * compilação (para que os dois lados nunca divirjam).
+ *
+ * Operações reais seguem double; as inteiras seguem long (divisão trunca,
+ * soma e produto dão a volta em 64 bits, dividir por zero é erro). Os
+ * passes guardam constantes como double, então só dobram uma operação
+ * inteira se operandos e resultado forem exatos em double (|v| <= 2^53).
+ */
+public final class Aritmetica {
+
+    private Aritmetica() {}
+
+    /** Maior inteiro que double e long representam igualmente (com todos os menores). */
+    public static final long MAX_EXATO = 1L << 53;
+
+    /** true se a operação pode ser calculada por {@link #calcular}. */
+    public static boolean ehBinaria(TacInstr.Op op) {
+        return switch (TacInstr.familia(op)) {
+            case ADD, SUB, MUL, DIV, REM,
+                 CMPGT, CMPLT, CMPEQ, CMPLE, CMPGE, CMPNE -> true;
+            default -> false;
+        };
+    }
+
+    /**
+     * true se é seguro avaliar em tempo de compilação: divisão e resto por
+     * zero ficam para a execução (o resultado/erro é responsabilidade dela),
+     * assim como operações inteiras que sairiam da faixa exata do double.
+     */
+    public static boolean podeDobrar(TacInstr.Op op, double a, double b) {
+        if (!ehBinaria(op)) return false;
+        TacInstr.Op f = TacInstr.familia(op);
+        if ((f == TacInstr.Op.DIV || f == TacInstr.Op.REM) && b == 0) return false;
+        if (!TacInstr.ehInteira(op)) return true;
+        if (!exato(a) || !exato(b)) return false;
+        try {
+            long r = switch (f) {
+                case ADD -> Math.addExact((long) a, (long) b);
+                case SUB -> Math.subtractExact((long) a, (long) b);
+                case MUL -> Math.multiplyExact((long) a, (long) b);
+                default -> calcular(op, (long) a, (long) b);
+            };
+            return Math.abs(r) <= MAX_EXATO;
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    /** Formas imediatas (ADDI, CMPLTI, ...) calculam como a operação base; as inteiras, em long. */
+    public static double calcular(TacInstr.Op op, double a, double b) {
+        if (TacInstr.ehInteira(op)) return calcular(op, (long) a, (long) b);
+        return switch (TacInstr.formaBase(op)) {
+            case ADD -> a + b;
+            case SUB -> a - b;
+            case MUL -> a * b;
+            case DIV -> a / b;
+            case REM -> a % b;
+            case CMPLT -> (a < b)  ? 1.0 : 0.0;
+            case CMPGT -> (a > b)  ? 1.0 : 0.0;
+            case CMPEQ -> (a == b) ? 1.0 : 0.0;
+            case CMPLE -> (a <= b) ? 1.0 : 0.0;
+            case CMPGE -> (a >= b) ? 1.0 : 0.0;
+            case CMPNE -> (a != b) ? 1.0 : 0.0;
+            default -> throw new IllegalArgumentException("operação não aritmética: " + op);
+        };
+    }
+
+    /** Operações inteiras (IADD, IDIV, ICMPLTI, ...). IDIV/IREM por zero lançam ArithmeticException. */
+    public static long calcular(TacInstr.Op op, long a, long b) {
+        return switch (TacInstr.familia(op)) {
+            case ADD -> a + b;
+            case SUB -> a - b;
+            case MUL -> a * b;
+            case DIV -> a / b;
+            case REM -> a % b;
+            case CMPLT -> (a < b)  ? 1 : 0;
+            case CMPGT -> (a > b)  ? 1 : 0;
+            case CMPEQ -> (a == b) ? 1 : 0;
+            case CMPLE -> (a <= b) ? 1 : 0;
+            case CMPGE -> (a >= b) ? 1 : 0;
+            case CMPNE -> (a != b) ? 1 : 0;
+            default -> throw new IllegalArgumentException("operação não aritmética: " + op);
+        };
+    }
+
+    /** true se v é inteiro e cabe na faixa exata do double. */
+    public static boolean exato(double v) {
+        return v == Math.rint(v) && Math.abs(v) <= MAX_EXATO;
+    }
+
+    /**
+     * true se Double.parseDouble(literal) dá exatamente o valor do literal
+     * quando ele é inteiro (reais são sempre aceitos: o valor deles é o double).
+     */
+    public static boolean literalExato(String literal) {
+        if (!ehLiteralInteiro(literal)) return true;
+        long v = Long.parseLong(literal.trim());
+        return v >= -MAX_EXATO && v <= MAX_EXATO;
+    }
+
+    /** true se o literal é inteiro (só dígitos, com sinal opcional, cabendo em long). */
+    public static boolean ehLiteralInteiro(String literal) {
+        String s = literal.trim();
+        int i = (s.startsWith("-")) ? 1 : 0;
+        if (i == s.length()) return false;
+        for (; i < s.length(); i++) {
+            if (s.charAt(i) < '0' || s.charAt(i) > '9') return false;
+        }
+        try {
+            Long.parseLong(s);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Texto de uma constante calculada, aceito de volta por Double.parseDouble
+     * sem perda. Um valor inteiro sai só com dígitos ("7"), um real sempre com
+     * a forma de real ("7.0"), já que o literal é o que dá o tipo do LOADI.
+     */
+    public static String literal(double v, boolean inteiro) {
+        return inteiro ? Long.toString((long) v) : Double.toString(v);
+    }
+}
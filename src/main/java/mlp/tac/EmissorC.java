@@ -0,0 +1,236 @@
+package mlp.tac;
+
+import java.util.List;
+
+/**
+ * Tradução do TAC otimizado para um programa C99 (--emitir-c, --motor=nativo).
+ *
+ * Cada slot do TacProgram vira uma variável local de main, long long para
+ * INTEIRO e double para REAL, zerada como o quadro do interpretador. Cada
+ * instrução compacta vira uma linha, alvos de desvio viram rótulos L<pc> e
+ * os desvios viram goto. A saída segue a do InterpretadorTAC.PADRAO:
+ * inteiros com %lld, reais integrais como o long de (long) d e os demais no
+ * formato de Double.toString do JDK 19 em diante (o decimal mais curto que
+ * volta ao mesmo double e, entre eles, o mais próximo; decimal entre 10^-3
+ * e 10^7, notação "E" fora disso).
+ *
+ * A semântica é a de Aritmetica: soma, subtração e produto inteiros dão a
+ * volta em 64 bits (feitos em unsigned, sem o comportamento indefinido do
+ * overflow com sinal), IDIV/IREM por -1 não estouram e por zero escrevem a
+ * mesma mensagem de Main e terminam com DIVISAO_POR_ZERO. REM real é fmod,
+ * que é o % de Java. O programa deve ser compilado em modo ISO (-std=c99),
+ * sem contração de a*b+c em FMA, para que as contas em double sejam as
+ * mesmas da JVM.
+ */
+public final class EmissorC {
+
+    private EmissorC() {}
+
+    /** Código de saída do programa C quando IDIV/IREM dividem por zero. */
+    public static final int DIVISAO_POR_ZERO = 3;
+
+    private static final String PRELUDIO = """
+            #include <math.h>
+            #include <stdio.h>
+            #include <stdlib.h>
+            #include <string.h>
+
+            /* inteiros do MLP: 64 bits que dão a volta, como long em Java */
+            static long long mlp_soma(long long a, long long b) { return (long long) ((unsigned long long) a + (unsigned long long) b); }
+            static long long mlp_subtrai(long long a, long long b) { return (long long) ((unsigned long long) a - (unsigned long long) b); }
+            static long long mlp_multiplica(long long a, long long b) { return (long long) ((unsigned long long) a * (unsigned long long) b); }
+
+            static void mlp_divisao_por_zero(void) {
+                printf("  erro de execução: divisão inteira por zero\\n");
+                exit(%d);
+            }
+
+            static long long mlp_divide(long long a, long long b) {
+                if (b == 0) mlp_divisao_por_zero();
+                return (b == -1) ? mlp_subtrai(0, a) : a / b;
+            }
+
+            static long long mlp_resto(long long a, long long b) {
+                if (b == 0) mlp_divisao_por_zero();
+                return (b == -1) ? 0 : a %% b;
+            }
+
+            /* (long) d de Java: satura nos extremos e NaN vira 0 */
+            static long long mlp_para_long(double d) {
+                if (d != d) return 0;
+                if (d >= 9223372036854775807.0) return 9223372036854775807LL;
+                if (d <= -9223372036854775807.0 - 1.0) return -9223372036854775807LL - 1;
+                return (long long) d;
+            }
+
+            /* m * 10^e10, lido de volta, dá exatamente a? */
+            static int mlp_volta(unsigned long long m, int e10, double a) {
+                char t[48];
+                snprintf(t, sizeof t, "%%llue%%d", m, e10);
+                return strtod(t, NULL) == a;
+            }
+
+            /*
+             * Double.toString (JDK 19+): o decimal mais curto que volta ao mesmo
+             * double e, entre os de mesmo tamanho, o mais próximo dele; com 1
+             * dígito, o mais próximo entre os de 2. Em potências de 2 o intervalo
+             * é maior acima do valor, então o vizinho do arredondado também conta.
+             */
+            static void mlp_formata_real(double d, char *out) {
+                char tmp[40], dig[24];
+                unsigned long long m = 0;
+                int p, i, nd, e = 0, e10 = 0;
+                const char *s;
+                double a = fabs(d);
+                if (d != d) { strcpy(out, "NaN"); return; }
+                if (isinf(d)) { strcpy(out, d > 0 ? "Infinity" : "-Infinity"); return; }
+                if (signbit(d)) *out++ = '-';
+                if (a == 0) { strcpy(out, "0.0"); return; }
+                for (p = 1; p <= 17; p++) {
+                    snprintf(tmp, sizeof tmp, "%%.*e", (p == 1) ? 1 : p - 1, a);
+                    for (m = 0, s = tmp; *s != 'e'; s++) if (*s != '.') m = 10 * m + (unsigned long long) (*s - '0');
+                    e10 = atoi(s + 1) - ((p == 1) ? 1 : p - 1);
+                    if (mlp_volta(m, e10, a)) break;
+                    if (p > 1 && mlp_volta(m + 1, e10, a)) { m++; break; }
+                    if (p > 1 && mlp_volta(m - 1, e10, a)) { m--; break; }
+                }
+                nd = sprintf(dig, "%%llu", m);
+                e = e10 + nd - 1;                               /* expoente do primeiro dígito */
+                while (nd > 1 && dig[nd - 1] == '0') nd--;
+                if (a >= 1e-3 && a < 1e7) {
+                    if (e >= 0) {
+                        for (i = 0; i <= e; i++) *out++ = (i < nd) ? dig[i] : '0';
+                        *out++ = '.';
+                        if (nd > e + 1) for (i = e + 1; i < nd; i++) *out++ = dig[i];
+                        else *out++ = '0';
+                    } else {
+                        *out++ = '0';
+                        *out++ = '.';
+                        for (i = 0; i < -e - 1; i++) *out++ = '0';
+                        for (i = 0; i < nd; i++) *out++ = dig[i];
+                    }
+                    *out = 0;
+                } else {
+                    *out++ = dig[0];
+                    *out++ = '.';
+                    if (nd > 1) for (i = 1; i < nd; i++) *out++ = dig[i];
+                    else *out++ = '0';
+                    sprintf(out, "E%%d", e);
+                }
+            }
+
+            static void mlp_escreva_inteiro(long long v) {
+                printf("%%lld\\n", v);
+            }
+
+            static void mlp_escreva_real(double d) {
+                char buf[40];
+                long long v = mlp_para_long(d);
+                if (d == (double) v) {
+                    printf("%%lld\\n", v);
+                } else {
+                    mlp_formata_real(d, buf);
+                    puts(buf);
+                }
+            }
+
+            """.formatted(DIVISAO_POR_ZERO);
+
+    /** Programa C completo, equivalente ao TAC. */
+    public static String emitir(List<TacInstr> instrucoes) {
+        TacProgram p = TacProgram.montar(instrucoes);
+        int n = p.tamanho();
+
+        boolean[] alvo = new boolean[n + 1];
+        for (int pc = 0; pc < n; pc++) {
+            switch (p.op(pc)) {
+                case JMP -> alvo[p.a(pc)] = true;
+                case JMPFALSE, JMPTRUE -> alvo[p.b(pc)] = true;
+                default -> {}
+            }
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("/* programa MLP compilado do TAC otimizado */\n");
+        sb.append(PRELUDIO);
+        sb.append("int main(void) {\n");
+        for (int s = 0; s < p.numSlots(); s++) {
+            sb.append("    ").append(inteiro(p, s) ? "long long " : "double ").append(var(s))
+              .append(" = 0;").append("    /* ").append(p.nomeSlot(s)).append(" */\n");
+        }
+        sb.append('\n');
+
+        for (int pc = 0; pc < n; pc++) {
+            if (alvo[pc]) sb.append("L").append(pc).append(":\n");
+            String linha = instrucao(p, pc);
+            if (linha != null) sb.append("    ").append(linha).append('\n');
+        }
+        if (alvo[n]) sb.append("L").append(n).append(":\n");
+        sb.append("    return 0;\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private static boolean inteiro(TacProgram p, int slot) {
+        return p.tipo(slot) == TacProgram.Tipo.INTEIRO;
+    }
+
+    private static String var(int slot) {
+        return "s" + slot;
+    }
+
+    /** Linha C da instrução pc, ou null se ela não faz nada. */
+    private static String instrucao(TacProgram p, int pc) {
+        TacInstr.Op op = p.op(pc);
+        int a = p.a(pc), b = p.b(pc);
+        return switch (op) {
+            case LOADI -> var(a) + " = " + constante(p, b, inteiro(p, a)) + ";";
+            case LOAD, STORE -> var(a) + " = " + var(b) + ";";
+            case ITOR -> var(a) + " = (double) " + var(b) + ";";
+            case PRINT -> (inteiro(p, a) ? "mlp_escreva_inteiro(" : "mlp_escreva_real(") + var(a) + ");";
+            case JMP -> "goto L" + a + ";";
+            case JMPFALSE -> "if (" + var(a) + " == 0) goto L" + b + ";";
+            case JMPTRUE -> "if (" + var(a) + " != 0) goto L" + b + ";";
+            case NOP, LABEL -> null;
+            default -> var(a) + " = " + expressao(p, pc) + ";";
+        };
+    }
+
+    /** Lado direito de uma operação binária (ou com imediato). */
+    private static String expressao(TacProgram p, int pc) {
+        TacInstr.Op op = p.op(pc);
+        boolean inteira = TacInstr.ehInteira(op);
+        String x = var(p.b(pc));
+        String y = TacInstr.ehImediata(op) ? constante(p, p.c(pc), inteira) : var(p.c(pc));
+        return switch (TacInstr.familia(op)) {
+            case ADD -> inteira ? "mlp_soma(" + x + ", " + y + ")" : x + " + " + y;
+            case SUB -> inteira ? "mlp_subtrai(" + x + ", " + y + ")" : x + " - " + y;
+            case MUL -> inteira ? "mlp_multiplica(" + x + ", " + y + ")" : x + " * " + y;
+            case DIV -> inteira ? "mlp_divide(" + x + ", " + y + ")" : x + " / " + y;
+            case REM -> inteira ? "mlp_resto(" + x + ", " + y + ")" : "fmod(" + x + ", " + y + ")";
+            case CMPLT -> x + " < " + y;
+            case CMPGT -> x + " > " + y;
+            case CMPEQ -> x + " == " + y;
+            case CMPLE -> x + " <= " + y;
+            case CMPGE -> x + " >= " + y;
+            case CMPNE -> x + " != " + y;
+            default -> throw new IllegalStateException("operação sem tradução para C: " + op);
+        };
+    }
+
+    /**
+     * Literal C da constante k. Reais saem em hexadecimal (exatos, sem
+     * depender do arredondamento do compilador C), com o literal original
+     * num comentário.
+     */
+    private static String constante(TacProgram p, int k, boolean inteira) {
+        if (inteira) {
+            long v = p.constanteInteira(k);
+            return (v == Long.MIN_VALUE) ? "(-9223372036854775807LL - 1)" : v + "LL";
+        }
+        double v = p.constante(k);
+        if (Double.isNaN(v)) return "NAN";
+        if (Double.isInfinite(v)) return (v > 0) ? "INFINITY" : "-INFINITY";
+        return Double.toHexString(v) + " /* " + p.literal(k) + " */";
+    }
+}
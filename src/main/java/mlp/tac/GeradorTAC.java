@@ -1,34 +1,101 @@
 package mlp.tac;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import mlp.ast.AstNode;
 import mlp.Lexico.Token;
 import mlp.Lexico.TokenTipo;
-
+import mlp.Semantico.AtribuicaoDefinida;
+
+/**
+ * Gera o TAC a partir da AST já validada.
+ *
+ * Cada nome tem um tipo: variáveis declaradas como inteiro e temporários com
+ * resultado inteiro são INTEIRO, o resto é REAL. Uma operação com os dois
+ * lados inteiros sai na forma inteira (IADD, IDIV, ICMPLT, ...), então
+ * 7 / 2 dá 3; se um dos lados é real, o lado inteiro é convertido com ITOR
+ * (um literal inteiro já sai como literal real, "7.0"). Atribuir uma
+ * expressão inteira a uma variável real também passa por ITOR.
+ */
 public class GeradorTAC {
 
     private final List<TacInstr> code = new ArrayList<>();
     private int tempCount = 0;
     private int labelCount = 0;
+    private final Set<String> zeradas = new LinkedHashSet<>();
+    private final Set<String> variaveis = new LinkedHashSet<>();
+    private final Set<String> inteiras = new LinkedHashSet<>();
+    private final Set<String> temposInteiros = new LinkedHashSet<>();
+
+    /** Próximo temporário livre; pula nomes de variáveis declaradas (ex.: "t1"). */
+    private String newTemp() {
+        String t;
+        do { t = "t" + (tempCount++); } while (variaveis.contains(t));
+        return t;
+    }
 
-    private String newTemp()  { return "t" + (tempCount++); }
     private String newLabel() { return "L" + (labelCount++); }
 
     public List<TacInstr> gerar(AstNode programa) {
         code.clear();
         tempCount = 0;
         labelCount = 0;
+        zeradas.clear();
+        variaveis.clear();
+        inteiras.clear();
+        temposInteiros.clear();
 
         if (programa == null) return code;
 
+        for (AstNode filho : programa.getFilhos()) {
+            if ("Decl".equals(filho.getKind())) coletarDecl(filho);
+        }
+
+        // Variáveis que podem ser lidas sem valor começam em 0; as demais
+        // já têm atribuição garantida antes de qualquer LOAD.
+        zeradas.addAll(new AtribuicaoDefinida().analisar(programa));
+        for (String var : zeradas) {
+            String t = newTemp();
+            code.add(TacInstr.loadi(t, inteiras.contains(var) ? "0" : "0.0"));
+            code.add(TacInstr.store(var, t));
+        }
+
         for (AstNode filho : programa.getFilhos()) {
             gerarComandoTopLevel(filho);
         }
         return code;
     }
 
+    /** Nomes declarados no programa; todo outro nome no TAC é temporário. */
+    public Set<String> getVariaveis() {
+        return variaveis;
+    }
+
+    /** Subconjunto de getVariaveis() declarado como inteiro. */
+    public Set<String> getVariaveisInteiras() {
+        return inteiras;
+    }
+
+    /** Variáveis inicializadas com 0 pela análise de atribuição definida. */
+    public Set<String> getVariaveisZeradas() {
+        return zeradas;
+    }
+
+    private void coletarDecl(AstNode decl) {
+        // Decl -> Tipo ListaIdent(Ident*)
+        if (decl.getFilhos().size() < 2) return;
+        Token tipo = decl.getFilhos().get(0).getToken();
+        boolean inteiro = tipo != null && tipo.getTipo() == TokenTipo.KW_INTEIRO;
+        for (AstNode id : decl.getFilhos().get(1).getFilhos()) {
+            if (!"Ident".equals(id.getKind())) continue;
+            variaveis.add(id.getToken().getLexema());
+            if (inteiro) inteiras.add(id.getToken().getLexema());
+        }
+    }
+
     private void gerarComandoTopLevel(AstNode n) {
         switch (n.getKind()) {
             case "CmdAtrib"    -> genCmdAtrib(n);
@@ -54,7 +121,7 @@ public class GeradorTAC {
         String varName = idTk.getLexema();
 
         AstNode expr = cmd.getFilhos().get(1);
-        String src = genExpr(expr);
+        String src = inteiras.contains(varName) ? genExpr(expr) : genReal(expr);
         if (src == null) return;
 
         code.add(TacInstr.store(varName, src));
@@ -64,18 +131,16 @@ public class GeradorTAC {
     private void genCmdSe(AstNode cmdSe) {
         if (cmdSe.getFilhos().isEmpty()) return;
 
-        AstNode condNode = cmdSe.getFilhos().get(0);
-        String condTemp = genCond(condNode);
-        if (condTemp == null) return;
-
         boolean hasElse = (cmdSe.getFilhos().size() > 2);
         String elseLabel = hasElse ? newLabel() : null;
         String endLabel  = newLabel();
 
+        // verdadeiro cai no 'entao'; falso desvia para o 'senao' (ou para o fim)
+        AstNode condNode = cmdSe.getFilhos().get(0);
+        if (!genCond(condNode, null, hasElse ? elseLabel : endLabel)) return;
+
         if (hasElse) {
             // if (cond) then ... else ...
-            code.add(TacInstr.jmpFalse(condTemp, elseLabel));
-
             AstNode thenBlk = cmdSe.getFilhos().get(1);
             genBlocoComandos(thenBlk);
 
@@ -88,8 +153,6 @@ public class GeradorTAC {
             code.add(TacInstr.label(endLabel));
         } else {
             // if (cond) then ...
-            code.add(TacInstr.jmpFalse(condTemp, endLabel));
-
             AstNode thenBlk = cmdSe.getFilhos().get(1);
             genBlocoComandos(thenBlk);
 
@@ -106,14 +169,7 @@ public class GeradorTAC {
         code.add(TacInstr.label(beginLabel));
 
         AstNode condNode = cmd.getFilhos().get(0);
-        String condTemp = genCond(condNode);
-        if (condTemp == null) {
-            code.add(TacInstr.jmp(endLabel));
-            code.add(TacInstr.label(endLabel));
-            return;
-        }
-
-        code.add(TacInstr.jmpFalse(condTemp, endLabel));
+        if (!genCond(condNode, null, endLabel)) return;
 
         if (cmd.getFilhos().size() > 1) {
             AstNode body = cmd.getFilhos().get(1);
@@ -154,159 +210,194 @@ public class GeradorTAC {
         return switch (e.getKind()) {
             case "Numero" -> {
                 Token tk = e.getToken();
-                String t = newTemp();
+                String t = newTemp(inteiro(e));
                 code.add(TacInstr.loadi(t, tk.getLexema()));
                 yield t;
             }
             case "Ident" -> {
                 Token tk = e.getToken();
-                String t = newTemp();
+                String t = newTemp(inteiro(e));
                 code.add(TacInstr.load(t, tk.getLexema()));
                 yield t;
             }
-            case "OpMais" -> {
-                String a = genExpr(e.getFilhos().get(0));
-                String b = genExpr(e.getFilhos().get(1));
-                String t = newTemp();
-                code.add(TacInstr.add(t, a, b));
-                yield t;
-            }
-            case "OpMenos" -> {
-                String a = genExpr(e.getFilhos().get(0));
-                String b = genExpr(e.getFilhos().get(1));
-                String t = newTemp();
-                code.add(TacInstr.sub(t, a, b));
-                yield t;
-            }
-            case "OpMult" -> {
-                String a = genExpr(e.getFilhos().get(0));
-                String b = genExpr(e.getFilhos().get(1));
-                String t = newTemp();
-                code.add(TacInstr.mul(t, a, b));
-                yield t;
-            }
-            case "OpDiv" -> {
-                String a = genExpr(e.getFilhos().get(0));
-                String b = genExpr(e.getFilhos().get(1));
-                String t = newTemp();
-                code.add(TacInstr.div(t, a, b));
-                yield t;
-            }
-            case "OpResto" -> {
-                String a = genExpr(e.getFilhos().get(0));
-                String b = genExpr(e.getFilhos().get(1));
-                String t = newTemp();
-                code.add(TacInstr.rem(t, a, b));
-                yield t;
-            }
+            case "OpMais"  -> genBinaria(TacInstr.Op.ADD, e);
+            case "OpMenos" -> genBinaria(TacInstr.Op.SUB, e);
+            case "OpMult"  -> genBinaria(TacInstr.Op.MUL, e);
+            case "OpDiv"   -> genBinaria(TacInstr.Op.DIV, e);
+            case "OpResto" -> genBinaria(TacInstr.Op.REM, e);
             default -> null;
         };
     }
 
-            private String genCond(AstNode c) {
-        if (c == null) return null;
+    /** Expressão como real: literal inteiro vira literal real, o resto inteiro passa por ITOR. */
+    private String genReal(AstNode e) {
+        String k = literal(e);
+        if (k != null && inteiro(e)) {
+            String t = newTemp(false);
+            code.add(TacInstr.loadi(t, literalReal(k)));
+            return t;
+        }
+        String a = genExpr(e);
+        if (a == null || !temposInteiros.contains(a)) return a;
+        String t = newTemp(false);
+        code.add(TacInstr.itor(t, a));
+        return t;
+    }
 
-        return switch (c.getKind()) {
-            case "Rel"  -> genRel(c);       // já existia
-            case "Nao"  -> genCondNao(c);   // novo: NOT
-            case "OpE"  -> genCondE(c);     // novo: AND
-            case "OpOU" -> genCondOu(c);    // novo: OR
-            default     -> null;
-        };
+    /** Próximo temporário, registrando o tipo dele. */
+    private String newTemp(boolean inteiro) {
+        String t = newTemp();
+        if (inteiro) temposInteiros.add(t);
+        return t;
     }
 
-    private String genRel(AstNode rel) {
-        if (rel.getFilhos().size() < 2) return null;
+    /** true se a expressão tem tipo inteiro (o semântico já garantiu que resto só tem operandos inteiros). */
+    private boolean inteiro(AstNode e) {
+        return switch (e.getKind()) {
+            case "Numero" -> e.getToken().getTipo() == TokenTipo.NUM_INT;
+            case "Ident" -> inteiras.contains(e.getToken().getLexema());
+            case "OpMais", "OpMenos", "OpMult", "OpDiv", "OpResto" -> inteiro(e.getFilhos().get(0)) && inteiro(e.getFilhos().get(1));
+            default -> false;
+        };
+    }
 
-        AstNode left  = rel.getFilhos().get(0);
-        AstNode right = rel.getFilhos().get(1);
+    private static String literalReal(String k) {
+        return Aritmetica.literal(Double.parseDouble(k), false);
+    }
 
-        String a = genExpr(left);
-        String b = genExpr(right);
-        if (a == null || b == null) return null;
+    /** "t = a op b" sobre os dois filhos de e, escolhendo a forma imediata se couber. */
+    private String genBinaria(TacInstr.Op op, AstNode e) {
+        return genOperacao(op, e.getFilhos().get(0), e.getFilhos().get(1));
+    }
 
-        String t = newTemp();
-        Token opTk = rel.getToken();
-        TokenTipo tp = (opTk != null ? opTk.getTipo() : null);
+    /**
+     * Gera "op t, a, b". Se o operando da direita é um literal e a operação
+     * tem forma imediata, sai "opI t, a, literal" sem o LOADI; se o literal
+     * está à esquerda e a operação admite trocar os lados (soma, produto,
+     * comparações espelhadas), troca antes. Com os dois lados inteiros sai a
+     * forma inteira da operação; senão os dois lados vão para real. Devolve
+     * null se algum lado falhar.
+     */
+    private String genOperacao(TacInstr.Op op, AstNode esq, AstNode dir) {
+        TacInstr.Op espelho = TacInstr.espelhada(op);
+        if (literal(dir) == null && literal(esq) != null && espelho != null) {
+            AstNode x = esq; esq = dir; dir = x;
+            op = espelho;
+        }
 
-        if (tp == TokenTipo.OP_LT) {
-            code.add(TacInstr.cmplt(t, a, b));
-        } else if (tp == TokenTipo.OP_GT) {
-            code.add(TacInstr.cmpgt(t, a, b));
-        } else if (tp == TokenTipo.OP_EQ) {
-            code.add(TacInstr.cmpeq(t, a, b));
-        } else if (tp == TokenTipo.OP_LE) {
-            code.add(TacInstr.cmple(t, a, b));
-        } else if (tp == TokenTipo.OP_GE) {
-            code.add(TacInstr.cmpge(t, a, b));
-        } else if (tp == TokenTipo.OP_NE) {
-            code.add(TacInstr.cmpne(t, a, b));
-        } else {
-            // fallback: trata como "<"
-            code.add(TacInstr.cmplt(t, a, b));
+        boolean inteira = inteiro(esq) && inteiro(dir);
+        if (inteira) op = TacInstr.formaInteira(op);
+        boolean resultadoInteiro = TacInstr.produzInteiro(op);
+
+        TacInstr.Op imediata = TacInstr.formaImediata(op);
+        String k = literal(dir);
+        if (imediata != null && k != null) {
+            String a = inteira ? genExpr(esq) : genReal(esq);
+            if (a == null) return null;
+            String t = newTemp(resultadoInteiro);
+            code.add(TacInstr.imediata(imediata, t, a, (inteira || !inteiro(dir)) ? k : literalReal(k)));
+            return t;
         }
 
+        String a = inteira ? genExpr(esq) : genReal(esq);
+        String b = inteira ? genExpr(dir) : genReal(dir);
+        if (a == null || b == null) return null;
+        String t = newTemp(resultadoInteiro);
+        code.add(new TacInstr(op, t, a, b, null));
         return t;
     }
-        // NAO <cond>
-    private String genCondNao(AstNode naoNode) {
-        if (naoNode.getFilhos().isEmpty()) return null;
 
-        // filho é outra condição (Rel, OpE, OpOU, ou outro NAO)
-        AstNode inner = naoNode.getFilhos().get(0);
-        String v = genCond(inner);
-        if (v == null) return null;
+    /** Texto do literal se o nó é um Numero, senão null. */
+    private static String literal(AstNode e) {
+        return (e != null && "Numero".equals(e.getKind())) ? e.getToken().getLexema() : null;
+    }
 
-        // queremos: resultado = (v == 0)
-        String zero = newTemp();
-        code.add(TacInstr.loadi(zero, "0"));
+    /**
+     * Condição como fluxo de controle (curto-circuito, sem booleanos intermediários):
+     * desvia para lblV se verdadeira e para lblF se falsa. Um dos dois pode ser
+     * null, significando "segue para a próxima instrução".
+     */
+    private boolean genCond(AstNode c, String lblV, String lblF) {
+        if (c == null) return false;
 
-        String t = newTemp();
-        code.add(TacInstr.cmpeq(t, v, zero)); // t = (v == 0 ? 1 : 0)
-
-        return t;
+        return switch (c.getKind()) {
+            case "Rel"  -> genRel(c, lblV, lblF);
+            case "Nao"  -> genCondNao(c, lblV, lblF);
+            case "OpE"  -> genCondE(c, lblV, lblF);
+            case "OpOU" -> genCondOu(c, lblV, lblF);
+            default     -> false;
+        };
     }
 
-    // <cond> E <cond>
-    private String genCondE(AstNode node) {
-        if (node.getFilhos().size() < 2) return null;
+    private boolean genRel(AstNode rel, String lblV, String lblF) {
+        if (rel.getFilhos().size() < 2) return false;
 
-        String a = genCond(node.getFilhos().get(0));
-        String b = genCond(node.getFilhos().get(1));
-        if (a == null || b == null) return null;
+        AstNode left  = rel.getFilhos().get(0);
+        AstNode right = rel.getFilhos().get(1);
 
-        // AND: (a && b) -> (a * b) != 0
-        String mul = newTemp();
-        code.add(TacInstr.mul(mul, a, b));
+        Token opTk = rel.getToken();
+        TokenTipo tp = (opTk != null ? opTk.getTipo() : null);
 
-        String zero = newTemp();
-        code.add(TacInstr.loadi(zero, "0"));
+        TacInstr.Op op;
+        if (tp == TokenTipo.OP_GT)      op = TacInstr.Op.CMPGT;
+        else if (tp == TokenTipo.OP_EQ) op = TacInstr.Op.CMPEQ;
+        else if (tp == TokenTipo.OP_LE) op = TacInstr.Op.CMPLE;
+        else if (tp == TokenTipo.OP_GE) op = TacInstr.Op.CMPGE;
+        else if (tp == TokenTipo.OP_NE) op = TacInstr.Op.CMPNE;
+        else                            op = TacInstr.Op.CMPLT;   // OP_LT e fallback
 
-        String t = newTemp();
-        code.add(TacInstr.cmpne(t, mul, zero)); // t = (mul != 0 ? 1 : 0)
+        String t = genOperacao(op, left, right);
+        if (t == null) return false;
 
-        return t;
+        if (lblV != null) {
+            code.add(TacInstr.jmpTrue(t, lblV));
+            if (lblF != null) code.add(TacInstr.jmp(lblF));
+        } else {
+            code.add(TacInstr.jmpFalse(t, lblF));
+        }
+        return true;
     }
 
-    // <cond> OU <cond>
-    private String genCondOu(AstNode node) {
-        if (node.getFilhos().size() < 2) return null;
+    // NAO <cond>: basta trocar os destinos
+    private boolean genCondNao(AstNode naoNode, String lblV, String lblF) {
+        if (naoNode.getFilhos().isEmpty()) return false;
 
-        String a = genCond(node.getFilhos().get(0));
-        String b = genCond(node.getFilhos().get(1));
-        if (a == null || b == null) return null;
+        // filho é outra condição (Rel, OpE, OpOU, ou outro NAO)
+        return genCond(naoNode.getFilhos().get(0), lblF, lblV);
+    }
 
-        // OR: (a || b) -> (a + b) != 0
-        String sum = newTemp();
-        code.add(TacInstr.add(sum, a, b));
+    // <cond> E <cond>: se a for falsa, b nem é avaliada
+    private boolean genCondE(AstNode node, String lblV, String lblF) {
+        if (node.getFilhos().size() < 2) return false;
 
-        String zero = newTemp();
-        code.add(TacInstr.loadi(zero, "0"));
+        AstNode a = node.getFilhos().get(0);
+        AstNode b = node.getFilhos().get(1);
 
-        String t = newTemp();
-        code.add(TacInstr.cmpne(t, sum, zero)); // t = (sum != 0 ? 1 : 0)
+        if (lblF != null) {
+            return genCond(a, null, lblF) && genCond(b, lblV, lblF);
+        }
+        // falso "segue": precisa de um rótulo logo após b
+        String fim = newLabel();
+        boolean ok = genCond(a, null, fim) && genCond(b, lblV, null);
+        code.add(TacInstr.label(fim));
+        return ok;
+    }
 
-        return t;
+    // <cond> OU <cond>: se a for verdadeira, b nem é avaliada
+    private boolean genCondOu(AstNode node, String lblV, String lblF) {
+        if (node.getFilhos().size() < 2) return false;
+
+        AstNode a = node.getFilhos().get(0);
+        AstNode b = node.getFilhos().get(1);
+
+        if (lblV != null) {
+            return genCond(a, lblV, null) && genCond(b, lblV, lblF);
+        }
+        // verdadeiro "segue": precisa de um rótulo logo após b
+        String fim = newLabel();
+        boolean ok = genCond(a, fim, null) && genCond(b, null, lblF);
+        code.add(TacInstr.label(fim));
+        return ok;
     }
 
 }
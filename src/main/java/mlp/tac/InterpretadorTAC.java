@@ -1,130 +1,421 @@
 package mlp.tac;
 import java.util.*;
 
-public class InterpretadorTAC {
-    Map<String, Object> memoria = new HashMap<>();
+import mlp.tac.cfg.BlocoBasico;
+import mlp.tac.cfg.GrafoFluxo;
+import mlp.tac.cfg.Vivacidade;
 
+/**
+ * Interpretador do TAC.
+ *
+ * Antes de executar, monta o programa na forma compacta (TacProgram): cada
+ * instrução vira op + três inteiros, com variáveis e temporários já
+ * resolvidos para posições do quadro, literais para o pool de constantes e
+ * rótulos para o índice da instrução alvo. O laço principal só faz switch
+ * na operação e lê/escreve o quadro: nada de texto, mapas ou boxing por
+ * instrução. As operações seguem exatamente Aritmetica.calcular.
+ *
+ * O quadro tem duas faixas, double[] e long[], e cada slot vive em uma só,
+ * conforme TacProgram.tipo. As operações inteiras (IADD, ICMPLT, ...) só
+ * usam a faixa long, as reais leem a faixa double e as comparações sempre
+ * escrevem na long. Na decodificação, LOADI, cópias, desvios e PRINT sobre
+ * um slot INTEIRO viram a variante "_L" da operação. IDIV/IREM por zero
+ * lançam ArithmeticException.
+ *
+ * Depois, a decodificação funde pares comuns em superinstruções, desde que
+ * o valor intermediário não seja lido depois do par (vivacidade do TAC) e
+ * os dois estejam no mesmo bloco:
+ *   CMPxx t, a, b ; JMPFALSE/JMPTRUE t, L  ->  compara e desvia (BRxx)
+ *   op t, a, b    ; STORE x, t             ->  op escrevendo direto em x
+ * O par conta como duas instruções no perfil e no limite. A forma "LOAD t,
+ * x ; op" não é fundida: a propagação de cópias (-O1) já põe x direto na
+ * operação.
+ *
+ * Com um Perfil, conta quantas vezes cada instrução rodou e quantas vezes
+ * cada JMPFALSE/JMPTRUE saltou (ver --coletar-perfil); os contadores são
+ * devolvidos indexados pela lista original, LABELs inclusive. Com um limite
+ * de instruções, para no meio se o programa não terminar antes dele (usado
+ * na avaliação em tempo de compilação, ver AvaliacaoCompleta).
+ */
+public class InterpretadorTAC implements Motor {
+
+    private static final int W = TacProgram.LARGURA;
+
+    /** Operações do laço principal: as do TAC e as variantes sobre a faixa long. */
+    private enum Micro {
+        LOADI, LOAD, ADD, SUB, MUL, DIV, REM,
+        CMPLT, CMPGT, CMPEQ, CMPLE, CMPGE, CMPNE,
+        ADDI, SUBI, MULI,
+        CMPLTI, CMPGTI, CMPEQI, CMPLEI, CMPGEI, CMPNEI,
+        IADD, ISUB, IMUL, IDIV, IREM,
+        ICMPLT, ICMPGT, ICMPEQ, ICMPLE, ICMPGE, ICMPNE,
+        IADDI, ISUBI, IMULI,
+        ICMPLTI, ICMPGTI, ICMPEQI, ICMPLEI, ICMPGEI, ICMPNEI,
+        ITOR,
+        PRINT, NOP, JMP, JMPFALSE, JMPTRUE,
+        LOADI_L, LOAD_L, PRINT_L, JMPFALSE_L, JMPTRUE_L,
+
+        // superinstruções: comparação inteira + desvio, desvia se a R b
+        IBRLT, IBRGT, IBREQ, IBRLE, IBRGE, IBRNE,
+        IBRLTI, IBRGTI, IBREQI, IBRLEI, IBRGEI, IBRNEI,
+        // comparação real + desvio: BR desvia se a R b, BF se não (NaN impede inverter R)
+        BRLT, BRGT, BREQ, BRLE, BRGE, BRNE,
+        BRLTI, BRGTI, BREQI, BRLEI, BRGEI, BRNEI,
+        BFLT, BFGT, BFEQ, BFLE, BFGE, BFNE,
+        BFLTI, BFGTI, BFEQI, BFLEI, BFGEI, BFNEI,
+        // operação + STORE do resultado (o destino vem da instrução seguinte)
+        IADD_ST, ISUB_ST, IMUL_ST, IADDI_ST, ISUBI_ST, IMULI_ST,
+        ADD_ST, SUB_ST, MUL_ST, ADDI_ST, SUBI_ST, MULI_ST
+    }
+
+    /** Destino dos valores de PRINT, com o tipo do slot escrito. */
+    public interface Saida {
+        void inteiro(long v);
+        void real(double v);
+    }
+
+    /** Saída de escreva: uma linha por valor. */
+    public static final Saida PADRAO = new Saida() {
+        @Override public void inteiro(long v) { System.out.println(v); }
+        @Override public void real(double v)  { imprimir(v); }
+    };
+
+    private final Saida saida;
+
+    public InterpretadorTAC() {
+        this(PADRAO);
+    }
+
+    /** @param saida recebe cada valor escrito por PRINT, em ordem */
+    public InterpretadorTAC(Saida saida) {
+        this.saida = saida;
+    }
+
+    /** Formato de escreva para reais: valores inteiros sem ".0". */
+    public static void imprimir(double d) {
+        if (d == (long) d) {
+            System.out.println((long) d);
+        } else {
+            System.out.println(d);
+        }
+    }
+
+    @Override
     public void executar(List<TacInstr> instrucoes) {
-        int c= 0;
-        
-        Map<String, Object> labels = new HashMap<>();
+        executar(instrucoes, null);
+    }
+
+    /** @param perfil contadores a preencher, ou null para rodar sem coleta */
+    public void executar(List<TacInstr> instrucoes, Perfil perfil) {
+        if (perfil != null && perfil.execucoes.length != instrucoes.size()) {
+            throw new IllegalArgumentException("perfil coletado sobre outro código");
+        }
+        TacProgram p = TacProgram.montar(instrucoes);
+        Micro[] ops = decodificar(p, fundiveis(instrucoes, p));
+        if (perfil == null) {
+            executar(p, ops, null, null, Long.MAX_VALUE);
+            return;
+        }
 
+        // contadores por instrução compacta; a posição tamanho() é o fim do programa
+        long[] execucoes = new long[p.tamanho() + 1];
+        long[] tomados = new long[p.tamanho() + 1];
+        if (executar(p, ops, execucoes, tomados, Long.MAX_VALUE)) execucoes[p.tamanho()]++;
+
+        // um LABEL roda exatamente tantas vezes quanto a instrução que ele marca
         for (int i = 0; i < instrucoes.size(); i++) {
-            String s = instrucoes.get(i).toString();
-            if (s.startsWith("LABEL ")) {
-                labels.put(s.substring(6).trim(), i);
-            }
+            int pc = p.posicao(i);
+            TacInstr.Op op = instrucoes.get(i).op;
+            perfil.execucoes[i] = execucoes[pc];
+            perfil.tomados[i] = (op == TacInstr.Op.JMPFALSE || op == TacInstr.Op.JMPTRUE) ? tomados[pc] : 0;
         }
-        while (c < instrucoes.size()) {
-            String instr = instrucoes.get(c).toString().trim();
-            String[] parts = instr.split("\\s+", 2);
-            String op = parts [0];
-
-            switch (op) {
-                case "LOADI" -> {
-                    String[] args = parts[1].split(",");
-                    memoria.put(args[0].trim(), Double.parseDouble(args[1].trim()));
-                }
-        
-                case "LOAD" -> {
-                    String[] args = parts[1].split(",");
-                    memoria.put(args[0].trim(), memoria.get(args[1].trim()));
-                }
+    }
 
-                case "STORE" -> {
-                    String[] args = parts[1].split(",");
-                    memoria.put(args[0].trim(), memoria.get(args[1].trim()));
-                }
-            
-                case "ADD" -> {
-                    String[] args = parts[1].split(",");
-                    double a = (double) memoria.get(args[1].trim());
-                    double b = (double) memoria.get(args[2].trim());
-                    memoria.put(args[0].trim(), a + b );
-                }
-            
-            
-                case "SUB" -> {
-                    String[] args = parts[1].split(",");
-                    double a = (double) memoria.get(args[1].trim());
-                    double b = (double) memoria.get(args[2].trim());
-                    memoria.put(args[0].trim(), a - b );
-                }
-            
-            
-                case "MUL" -> {
-                    String[] args = parts[1].split(",");
-                    double a = (double) memoria.get(args[1].trim());
-                    double b = (double) memoria.get(args[2].trim());
-                    memoria.put(args[0].trim(), a * b );
+    /**
+     * Executa no máximo 'limite' instruções.
+     *
+     * @return true se o programa chegou ao fim, false se o limite acabou antes
+     */
+    public boolean executar(List<TacInstr> instrucoes, long limite) {
+        TacProgram p = TacProgram.montar(instrucoes);
+        return executar(p, decodificar(p, fundiveis(instrucoes, p)), null, null, limite);
+    }
+
+    /**
+     * Instruções compactas cujo resultado só é lido pela instrução seguinte,
+     * do mesmo bloco, e está morto depois dela: candidatas a fusão.
+     */
+    static boolean[] fundiveis(List<TacInstr> instrucoes, TacProgram p) {
+        boolean[] r = new boolean[p.tamanho()];
+        if (instrucoes.isEmpty()) return r;
+        GrafoFluxo g = GrafoFluxo.construir(instrucoes);
+        Vivacidade viv = new Vivacidade(g);
+        int pos = 0;                                          // índice na lista da 1ª instrução do bloco
+        for (BlocoBasico b : g.blocos()) {
+            List<Set<String>> depois = viv.vivasDepoisDeCada(b);
+            for (int k = 0; k + 1 < b.instrucoes.size(); k++) {
+                String d = b.instrucoes.get(k).definido();
+                TacInstr prox = b.instrucoes.get(k + 1);
+                if (d != null && prox.usados().equals(List.of(d)) && !d.equals(prox.definido())
+                        && !depois.get(k + 1).contains(d)) {
+                    r[p.posicao(pos + k)] = true;
                 }
-            
-            
-                case "DIV" -> {
-                    String[] args = parts[1].split(",");
-                    double a = (double) memoria.get(args[1].trim());
-                    double b = (double) memoria.get(args[2].trim());
-                    memoria.put(args[0].trim(), a / b );
+            }
+            pos += b.instrucoes.size();
+        }
+        return r;
+    }
+
+    /** Operação de cada instrução, já com a faixa dos slots que ela toca e as fusões. */
+    private static Micro[] decodificar(TacProgram p, boolean[] fundivel) {
+        Micro[] ops = new Micro[p.tamanho()];
+        for (int pc = 0; pc < ops.length; pc++) {
+            TacInstr.Op op = p.op(pc);
+            String nome = switch (op) {
+                case STORE -> "LOAD";
+                case LABEL -> "NOP";
+                default -> op.name();
+            };
+            boolean inteiro = switch (op) {
+                case LOADI, LOAD, STORE, PRINT, JMPFALSE, JMPTRUE -> p.tipo(p.a(pc)) == TacProgram.Tipo.INTEIRO;
+                default -> false;
+            };
+            ops[pc] = Micro.valueOf(inteiro ? nome + "_L" : nome);
+        }
+        for (int pc = 0; pc + 1 < ops.length; pc++) {
+            if (!fundivel[pc]) continue;
+            Micro f = fundir(p.op(pc), p.op(pc + 1));
+            if (f != null) ops[pc] = f;
+        }
+        return ops;
+    }
+
+    /** Superinstrução para o par (op, seguinte), ou null se o par não tem uma. */
+    private static Micro fundir(TacInstr.Op op, TacInstr.Op seguinte) {
+        boolean imediata = TacInstr.ehImediata(op);
+        if (seguinte == TacInstr.Op.JMPFALSE || seguinte == TacInstr.Op.JMPTRUE) {
+            if (!TacInstr.ehComparacao(op)) return null;
+            String rel = TacInstr.familia(op).name().substring(3);              // "LT", "GE", ...
+            boolean seVerdade = seguinte == TacInstr.Op.JMPTRUE;
+            String nome;
+            if (TacInstr.ehInteira(op)) {
+                nome = "IBR" + (seVerdade ? rel : negada(rel));
+            } else {
+                nome = (seVerdade ? "BR" : "BF") + rel;
+            }
+            return Micro.valueOf(imediata ? nome + "I" : nome);
+        }
+        if (seguinte == TacInstr.Op.STORE || seguinte == TacInstr.Op.LOAD) {
+            return switch (op) {
+                case IADD, ISUB, IMUL, IADDI, ISUBI, IMULI,
+                     ADD, SUB, MUL, ADDI, SUBI, MULI -> Micro.valueOf(op.name() + "_ST");
+                default -> null;
+            };
+        }
+        return null;
+    }
+
+    /** Relação contrária: !(a R b) == a R' b (só vale para inteiros). */
+    private static String negada(String rel) {
+        return switch (rel) {
+            case "LT" -> "GE";
+            case "GE" -> "LT";
+            case "GT" -> "LE";
+            case "LE" -> "GT";
+            case "EQ" -> "NE";
+            default -> "EQ";
+        };
+    }
+
+    /** Segunda metade de uma comparação fundida: conta o desvio e devolve o próximo pc. */
+    private static int desviar(boolean salta, int pc, int alvo, long[] execucoes, long[] tomados) {
+        if (execucoes != null) execucoes[pc + 1]++;
+        if (!salta) return pc + 2;
+        if (tomados != null) tomados[pc + 1]++;
+        return alvo;
+    }
+
+    /** Segunda metade de uma operação fundida com o STORE: conta o STORE e pula os dois. */
+    private static int pular(int pc, long[] execucoes) {
+        if (execucoes != null) execucoes[pc + 1]++;
+        return pc + 2;
+    }
+
+    private boolean executar(TacProgram p, Micro[] ops, long[] execucoes, long[] tomados, long limite) {
+        int[] cod = p.codigo();
+        int n = p.tamanho();
+        double[] k = new double[p.numConstantes()];
+        long[] kl = new long[k.length];
+        for (int i = 0; i < k.length; i++) {
+            k[i] = p.constante(i);
+            kl[i] = p.constanteInteira(i);
+        }
+        double[] m = new double[p.numSlots()];
+        long[] l = new long[p.numSlots()];
+
+        long restantes = limite;
+        int pc = 0;
+        while (pc < n) {
+            if (--restantes < 0) return false;
+            if (execucoes != null) execucoes[pc]++;
+            int i = pc * W;
+            int a = cod[i + 1], b = cod[i + 2], c = cod[i + 3];
+            switch (ops[pc]) {
+                case LOADI -> m[a] = k[b];
+                case LOAD -> m[a] = m[b];
+
+                case ADD   -> m[a] = m[b] + m[c];
+                case SUB   -> m[a] = m[b] - m[c];
+                case MUL   -> m[a] = m[b] * m[c];
+                case DIV   -> m[a] = m[b] / m[c];
+                case REM   -> m[a] = m[b] % m[c];
+                case CMPLT -> l[a] = (m[b] <  m[c]) ? 1 : 0;
+                case CMPGT -> l[a] = (m[b] >  m[c]) ? 1 : 0;
+                case CMPEQ -> l[a] = (m[b] == m[c]) ? 1 : 0;
+                case CMPLE -> l[a] = (m[b] <= m[c]) ? 1 : 0;
+                case CMPGE -> l[a] = (m[b] >= m[c]) ? 1 : 0;
+                case CMPNE -> l[a] = (m[b] != m[c]) ? 1 : 0;
+
+                case ADDI   -> m[a] = m[b] + k[c];
+                case SUBI   -> m[a] = m[b] - k[c];
+                case MULI   -> m[a] = m[b] * k[c];
+                case CMPLTI -> l[a] = (m[b] <  k[c]) ? 1 : 0;
+                case CMPGTI -> l[a] = (m[b] >  k[c]) ? 1 : 0;
+                case CMPEQI -> l[a] = (m[b] == k[c]) ? 1 : 0;
+                case CMPLEI -> l[a] = (m[b] <= k[c]) ? 1 : 0;
+                case CMPGEI -> l[a] = (m[b] >= k[c]) ? 1 : 0;
+                case CMPNEI -> l[a] = (m[b] != k[c]) ? 1 : 0;
+
+                case PRINT -> saida.real(m[a]);
+
+                case NOP -> {}
+
+                case JMP -> {
+                    pc = a;
+                    continue;
                 }
-            
-            
-                case "REM" -> {
-                    String[] args = parts[1].split(",");
-                    double a = (double) memoria.get(args[1].trim());
-                    double b = (double) memoria.get(args[2].trim());
-                    memoria.put(args[0].trim(), a % b );
+
+                case JMPFALSE -> {
+                    if (m[a] == 0) {
+                        if (tomados != null) tomados[pc]++;
+                        pc = b;
+                        continue;
+                    }
                 }
-            
-                case "PRINT" -> {
-                    Object val = memoria.get(parts[1].trim());
-                    double d = (double) val;
-                    if (d == (long) d) {
-                        System.out.println((long) d);
-                    } else {
-                        System.out.println(d);
+
+                case JMPTRUE -> {
+                    if (m[a] != 0) {
+                        if (tomados != null) tomados[pc]++;
+                        pc = b;
+                        continue;
                     }
                 }
 
-                case "LABEL" -> {}
+                // faixa long
+                case LOADI_L -> l[a] = kl[b];
+                case LOAD_L -> l[a] = l[b];
 
-                case "JMP" -> {
-                    c = (Integer) labels.get(parts[1].trim());
-                    continue;
-                }
+                case IADD -> l[a] = l[b] + l[c];
+                case ISUB -> l[a] = l[b] - l[c];
+                case IMUL -> l[a] = l[b] * l[c];
+                case IDIV -> l[a] = l[b] / l[c];
+                case IREM -> l[a] = l[b] % l[c];
+                case ICMPLT -> l[a] = (l[b] <  l[c]) ? 1 : 0;
+                case ICMPGT -> l[a] = (l[b] >  l[c]) ? 1 : 0;
+                case ICMPEQ -> l[a] = (l[b] == l[c]) ? 1 : 0;
+                case ICMPLE -> l[a] = (l[b] <= l[c]) ? 1 : 0;
+                case ICMPGE -> l[a] = (l[b] >= l[c]) ? 1 : 0;
+                case ICMPNE -> l[a] = (l[b] != l[c]) ? 1 : 0;
 
-                case "JMPFALSE" -> {
-                    String[] args = parts[1].split(",");
-                    double cond = (double) memoria.get(args[0].trim());
-                    if (cond == 0) {
-                        c = (Integer) labels.get(args[1].trim());
+                case IADDI   -> l[a] = l[b] + kl[c];
+                case ISUBI   -> l[a] = l[b] - kl[c];
+                case IMULI   -> l[a] = l[b] * kl[c];
+                case ICMPLTI -> l[a] = (l[b] <  kl[c]) ? 1 : 0;
+                case ICMPGTI -> l[a] = (l[b] >  kl[c]) ? 1 : 0;
+                case ICMPEQI -> l[a] = (l[b] == kl[c]) ? 1 : 0;
+                case ICMPLEI -> l[a] = (l[b] <= kl[c]) ? 1 : 0;
+                case ICMPGEI -> l[a] = (l[b] >= kl[c]) ? 1 : 0;
+                case ICMPNEI -> l[a] = (l[b] != kl[c]) ? 1 : 0;
+
+                case ITOR -> m[a] = l[b];
+
+                case PRINT_L -> saida.inteiro(l[a]);
+
+                case JMPFALSE_L -> {
+                    if (l[a] == 0) {
+                        if (tomados != null) tomados[pc]++;
+                        pc = b;
                         continue;
                     }
                 }
-                case "JMPTRUE" -> {
-                    String[] args = parts[1].split(",");
-                    double cond = (double) memoria.get(args[0].trim());
-                    if (cond != 0) {
-                        c = (Integer) labels.get(args[1].trim());
+
+                case JMPTRUE_L -> {
+                    if (l[a] != 0) {
+                        if (tomados != null) tomados[pc]++;
+                        pc = b;
                         continue;
+                    }
                 }
-                }
-                case "CMPLT", "CMPGT", "CMPEQ", "CMPLE", "CMPGE", "CMPNE" -> {
-                    String[] args = parts[1].split(",");
-                    double a = (double) memoria.get(args[1].trim());
-                    double b = (double) memoria.get(args[2].trim());
-                    boolean result = switch (op) {
-                        case "CMPLT" -> a < b;
-                        case "CMPGT" -> a > b;
-                        case "CMPEQ" -> a == b;
-                        case "CMPLE" -> a <= b;
-                        case "CMPGE" -> a >= b;
-                        case "CMPNE" -> a != b;
-                        default -> false;
-                };
-                memoria.put(args[0].trim(), result ? 1.0 : 0.0);
+
+                // superinstruções (o alvo está na instrução seguinte; contam como duas no limite)
+                case IBRLT -> { if (--restantes < 0) return false; pc = desviar(l[b] <  l[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case IBRGT -> { if (--restantes < 0) return false; pc = desviar(l[b] >  l[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case IBREQ -> { if (--restantes < 0) return false; pc = desviar(l[b] == l[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case IBRLE -> { if (--restantes < 0) return false; pc = desviar(l[b] <= l[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case IBRGE -> { if (--restantes < 0) return false; pc = desviar(l[b] >= l[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case IBRNE -> { if (--restantes < 0) return false; pc = desviar(l[b] != l[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+
+                case IBRLTI -> { if (--restantes < 0) return false; pc = desviar(l[b] <  kl[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case IBRGTI -> { if (--restantes < 0) return false; pc = desviar(l[b] >  kl[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case IBREQI -> { if (--restantes < 0) return false; pc = desviar(l[b] == kl[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case IBRLEI -> { if (--restantes < 0) return false; pc = desviar(l[b] <= kl[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case IBRGEI -> { if (--restantes < 0) return false; pc = desviar(l[b] >= kl[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case IBRNEI -> { if (--restantes < 0) return false; pc = desviar(l[b] != kl[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+
+                case BRLT -> { if (--restantes < 0) return false; pc = desviar(m[b] <  m[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BRGT -> { if (--restantes < 0) return false; pc = desviar(m[b] >  m[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BREQ -> { if (--restantes < 0) return false; pc = desviar(m[b] == m[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BRLE -> { if (--restantes < 0) return false; pc = desviar(m[b] <= m[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BRGE -> { if (--restantes < 0) return false; pc = desviar(m[b] >= m[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BRNE -> { if (--restantes < 0) return false; pc = desviar(m[b] != m[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+
+                case BRLTI -> { if (--restantes < 0) return false; pc = desviar(m[b] <  k[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BRGTI -> { if (--restantes < 0) return false; pc = desviar(m[b] >  k[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BREQI -> { if (--restantes < 0) return false; pc = desviar(m[b] == k[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BRLEI -> { if (--restantes < 0) return false; pc = desviar(m[b] <= k[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BRGEI -> { if (--restantes < 0) return false; pc = desviar(m[b] >= k[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BRNEI -> { if (--restantes < 0) return false; pc = desviar(m[b] != k[c], pc, cod[i + W + 2], execucoes, tomados); continue; }
+
+                case BFLT -> { if (--restantes < 0) return false; pc = desviar(!(m[b] <  m[c]), pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BFGT -> { if (--restantes < 0) return false; pc = desviar(!(m[b] >  m[c]), pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BFEQ -> { if (--restantes < 0) return false; pc = desviar(!(m[b] == m[c]), pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BFLE -> { if (--restantes < 0) return false; pc = desviar(!(m[b] <= m[c]), pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BFGE -> { if (--restantes < 0) return false; pc = desviar(!(m[b] >= m[c]), pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BFNE -> { if (--restantes < 0) return false; pc = desviar(!(m[b] != m[c]), pc, cod[i + W + 2], execucoes, tomados); continue; }
+
+                case BFLTI -> { if (--restantes < 0) return false; pc = desviar(!(m[b] <  k[c]), pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BFGTI -> { if (--restantes < 0) return false; pc = desviar(!(m[b] >  k[c]), pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BFEQI -> { if (--restantes < 0) return false; pc = desviar(!(m[b] == k[c]), pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BFLEI -> { if (--restantes < 0) return false; pc = desviar(!(m[b] <= k[c]), pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BFGEI -> { if (--restantes < 0) return false; pc = desviar(!(m[b] >= k[c]), pc, cod[i + W + 2], execucoes, tomados); continue; }
+                case BFNEI -> { if (--restantes < 0) return false; pc = desviar(!(m[b] != k[c]), pc, cod[i + W + 2], execucoes, tomados); continue; }
+
+                case IADD_ST  -> { if (--restantes < 0) return false; l[cod[i + W + 1]] = l[b] + l[c];  pc = pular(pc, execucoes); continue; }
+                case ISUB_ST  -> { if (--restantes < 0) return false; l[cod[i + W + 1]] = l[b] - l[c];  pc = pular(pc, execucoes); continue; }
+                case IMUL_ST  -> { if (--restantes < 0) return false; l[cod[i + W + 1]] = l[b] * l[c];  pc = pular(pc, execucoes); continue; }
+                case IADDI_ST -> { if (--restantes < 0) return false; l[cod[i + W + 1]] = l[b] + kl[c]; pc = pular(pc, execucoes); continue; }
+                case ISUBI_ST -> { if (--restantes < 0) return false; l[cod[i + W + 1]] = l[b] - kl[c]; pc = pular(pc, execucoes); continue; }
+                case IMULI_ST -> { if (--restantes < 0) return false; l[cod[i + W + 1]] = l[b] * kl[c]; pc = pular(pc, execucoes); continue; }
+
+                case ADD_ST  -> { if (--restantes < 0) return false; m[cod[i + W + 1]] = m[b] + m[c]; pc = pular(pc, execucoes); continue; }
+                case SUB_ST  -> { if (--restantes < 0) return false; m[cod[i + W + 1]] = m[b] - m[c]; pc = pular(pc, execucoes); continue; }
+                case MUL_ST  -> { if (--restantes < 0) return false; m[cod[i + W + 1]] = m[b] * m[c]; pc = pular(pc, execucoes); continue; }
+                case ADDI_ST -> { if (--restantes < 0) return false; m[cod[i + W + 1]] = m[b] + k[c]; pc = pular(pc, execucoes); continue; }
+                case SUBI_ST -> { if (--restantes < 0) return false; m[cod[i + W + 1]] = m[b] - k[c]; pc = pular(pc, execucoes); continue; }
+                case MULI_ST -> { if (--restantes < 0) return false; m[cod[i + W + 1]] = m[b] * k[c]; pc = pular(pc, execucoes); continue; }
             }
+            pc++;
         }
-        c++;
+        return true;
     }
 }
-}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package mlp.tac;
+
+import java.util.List;
+
+/**
+ * Motor de execução do TAC (ver --motor): roda o programa já otimizado e
+ * entrega os valores de PRINT, em ordem, a uma InterpretadorTAC.Saida.
+ *
+ * Todos os motores seguem exatamente a semântica do InterpretadorTAC
+ * (Aritmetica, faixas de TacProgram.tipo, IDIV/IREM por zero lançando
+ * ArithmeticException); só muda a forma de despachar as instruções.
+ */
+public interface Motor {
+
+    void executar(List<TacInstr> instrucoes);
+}
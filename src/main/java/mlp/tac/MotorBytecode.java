@@ -0,0 +1,477 @@
+package mlp.tac;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Motor que compila o TAC para bytecode da JVM (--motor=bytecode).
+ *
+ * O programa vira uma classe oculta (MethodHandles.Lookup.defineHiddenClass)
+ * com um único método estático run(Saida): cada slot do TacProgram é uma
+ * variável local long ou double, conforme TacProgram.tipo, cada instrução
+ * compacta vira a sequência de bytecode equivalente e os desvios viram
+ * goto/ifxx para o início da instrução alvo. PRINT chama a mesma Saida do
+ * interpretador. A partir daí o HotSpot compila o laço como compilaria Java.
+ *
+ * O classfile é montado à mão (pool de constantes, código e StackMapTable).
+ * Um prólogo zera todas as variáveis, como o quadro do interpretador, e a
+ * pilha de operandos está vazia em todo alvo de desvio; assim todos os
+ * quadros da StackMapTable são iguais e basta marcar onde eles ficam.
+ * Comparação seguida do desvio que a lê (mesma condição de fusão do
+ * InterpretadorTAC) vira um lcmp/dcmp + ifxx só.
+ *
+ * Se a classe não puder ser gerada ou carregada (por exemplo, método acima
+ * do limite de 64 KB ou desvio fora do alcance de 16 bits), o programa roda
+ * no InterpretadorTAC. Erros durante a execução (IDIV por zero) não caem no
+ * interpretador: propagam como nele.
+ */
+public class MotorBytecode implements Motor {
+
+    private static final String NOME = "mlp/tac/ProgramaMLP";
+    private static final String SAIDA = "mlp/tac/InterpretadorTAC$Saida";
+    private static final String DESCRITOR = "(L" + SAIDA + ";)V";
+
+    // opcodes usados
+    private static final int LCONST_0 = 0x09, LCONST_1 = 0x0a, DCONST_0 = 0x0e, DCONST_1 = 0x0f;
+    private static final int LDC2_W = 0x14, LLOAD = 0x16, DLOAD = 0x18, ALOAD_0 = 0x2a;
+    private static final int LSTORE = 0x37, DSTORE = 0x39;
+    private static final int LADD = 0x61, DADD = 0x63, LSUB = 0x65, DSUB = 0x67, LMUL = 0x69, DMUL = 0x6b;
+    private static final int LDIV = 0x6d, DDIV = 0x6f, LREM = 0x71, DREM = 0x73, L2D = 0x8a;
+    private static final int LCMP = 0x94, DCMPL = 0x97, DCMPG = 0x98;
+    private static final int IFEQ = 0x99, IFNE = 0x9a, IFLT = 0x9b, IFGE = 0x9c, IFGT = 0x9d, IFLE = 0x9e;
+    private static final int GOTO = 0xa7, RETURN = 0xb1, INVOKEINTERFACE = 0xb9, WIDE = 0xc4;
+
+    private final InterpretadorTAC.Saida saida;
+
+    public MotorBytecode() {
+        this(InterpretadorTAC.PADRAO);
+    }
+
+    /** @param saida recebe cada valor escrito por PRINT, em ordem */
+    public MotorBytecode(InterpretadorTAC.Saida saida) {
+        this.saida = saida;
+    }
+
+    @Override
+    public void executar(List<TacInstr> instrucoes) {
+        MethodHandle run;
+        try {
+            TacProgram p = TacProgram.montar(instrucoes);
+            byte[] classe = gerar(p, InterpretadorTAC.fundiveis(instrucoes, p));
+            MethodHandles.Lookup oculta = MethodHandles.lookup().defineHiddenClass(classe, true);
+            run = oculta.findStatic(oculta.lookupClass(), "run",
+                                    MethodType.methodType(void.class, InterpretadorTAC.Saida.class));
+        } catch (RuntimeException | LinkageError | ReflectiveOperationException e) {
+            System.err.println("motor bytecode indisponível (" + e + "); usando o interpretador");
+            new InterpretadorTAC(saida).executar(instrucoes);
+            return;
+        }
+
+        try {
+            run.invokeExact(saida);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    // ---------------- geração ----------------
+
+    /** Classfile com o método run(Saida) equivalente ao programa. */
+    static byte[] gerar(TacProgram p, boolean[] fundivel) {
+        int n = p.tamanho();
+        Pool cp = new Pool();
+        int classeSaida = cp.classe(SAIDA);
+        int escreveInteiro = cp.metodoInterface(SAIDA, "inteiro", "(J)V");
+        int escreveReal = cp.metodoInterface(SAIDA, "real", "(D)V");
+
+        Codigo c = new Codigo();
+        int[] rotulo = new int[n + 1];                        // instrução -> rótulo; n = fim
+        for (int pc = 0; pc <= n; pc++) rotulo[pc] = c.rotulo();
+
+        // prólogo: o quadro começa zerado
+        for (int s = 0; s < p.numSlots(); s++) {
+            if (inteiro(p, s)) { c.op(LCONST_0); c.local(LSTORE, local(s)); }
+            else               { c.op(DCONST_0); c.local(DSTORE, local(s)); }
+        }
+
+        for (int pc = 0; pc < n; pc++) {
+            c.marcar(rotulo[pc]);
+            TacInstr.Op op = p.op(pc);
+            int a = p.a(pc), b = p.b(pc);
+            switch (op) {
+                case LOADI -> {
+                    if (inteiro(p, a)) {
+                        long v = p.constanteInteira(b);
+                        if (v == 0 || v == 1) c.op(v == 0 ? LCONST_0 : LCONST_1);
+                        else c.u2(LDC2_W, cp.longo(v));
+                        c.local(LSTORE, local(a));
+                    } else {
+                        double v = p.constante(b);
+                        if (Double.doubleToRawLongBits(v) == 0 || v == 1) c.op(v == 1 ? DCONST_1 : DCONST_0);
+                        else c.u2(LDC2_W, cp.duplo(v));
+                        c.local(DSTORE, local(a));
+                    }
+                }
+                case LOAD, STORE -> {
+                    carregar(c, p, b);
+                    c.local(inteiro(p, a) ? LSTORE : DSTORE, local(a));
+                }
+                case ITOR -> {
+                    c.local(LLOAD, local(b));
+                    c.op(L2D);
+                    c.local(DSTORE, local(a));
+                }
+                case PRINT -> {
+                    c.op(ALOAD_0);
+                    carregar(c, p, a);
+                    c.u2(INVOKEINTERFACE, inteiro(p, a) ? escreveInteiro : escreveReal);
+                    c.op(3);                                  // argumentos em slots: a Saida + long/double
+                    c.op(0);
+                }
+                case JMP -> c.desvio(GOTO, rotulo[a]);
+                case JMPFALSE, JMPTRUE -> {
+                    carregar(c, p, a);
+                    if (inteiro(p, a)) { c.op(LCONST_0); c.op(LCMP); }
+                    else               { c.op(DCONST_0); c.op(DCMPL); }
+                    c.desvio(op == TacInstr.Op.JMPFALSE ? IFEQ : IFNE, rotulo[b]);
+                }
+                case NOP, LABEL -> {}
+                default -> {
+                    if (TacInstr.ehComparacao(op)) {
+                        TacInstr.Op seguinte = (pc + 1 < n) ? p.op(pc + 1) : null;
+                        int se = comparar(c, p, cp, pc);
+                        if (fundivel[pc] && (seguinte == TacInstr.Op.JMPFALSE || seguinte == TacInstr.Op.JMPTRUE)) {
+                            c.desvio(seguinte == TacInstr.Op.JMPTRUE ? se : negado(se), rotulo[p.b(pc + 1)]);
+                            c.marcar(rotulo[++pc]);
+                        } else {
+                            int verdade = c.rotulo(), fim = c.rotulo();
+                            c.desvio(se, verdade);
+                            c.op(LCONST_0);
+                            c.local(LSTORE, local(a));
+                            c.desvio(GOTO, fim);
+                            c.marcar(verdade);
+                            c.op(LCONST_1);
+                            c.local(LSTORE, local(a));
+                            c.marcar(fim);
+                        }
+                    } else {
+                        aritmetica(c, p, cp, pc);
+                    }
+                }
+            }
+        }
+        c.marcar(rotulo[n]);
+        c.op(RETURN);
+        c.resolver();
+
+        return classe(cp, c, p, classeSaida);
+    }
+
+    private static boolean inteiro(TacProgram p, int slot) {
+        return p.tipo(slot) == TacProgram.Tipo.INTEIRO;
+    }
+
+    /** Variável local do slot (a 0 é a Saida; long e double ocupam duas). */
+    private static int local(int slot) {
+        return 1 + 2 * slot;
+    }
+
+    private static void carregar(Codigo c, TacProgram p, int slot) {
+        c.local(inteiro(p, slot) ? LLOAD : DLOAD, local(slot));
+    }
+
+    /** Segundo operando de uma operação: slot ou constante do pool. */
+    private static void operando(Codigo c, TacProgram p, Pool cp, int pc) {
+        TacInstr.Op op = p.op(pc);
+        if (!TacInstr.ehImediata(op)) carregar(c, p, p.c(pc));
+        else if (TacInstr.ehInteira(op)) c.u2(LDC2_W, cp.longo(p.constanteInteira(p.c(pc))));
+        else c.u2(LDC2_W, cp.duplo(p.constante(p.c(pc))));
+    }
+
+    /** op a, b, c (ou imediato) sem comparação: calcula e guarda em a. */
+    private static void aritmetica(Codigo c, TacProgram p, Pool cp, int pc) {
+        TacInstr.Op op = p.op(pc);
+        boolean inteira = TacInstr.ehInteira(op);
+        carregar(c, p, p.b(pc));
+        operando(c, p, cp, pc);
+        c.op(switch (TacInstr.familia(op)) {
+            case ADD -> inteira ? LADD : DADD;
+            case SUB -> inteira ? LSUB : DSUB;
+            case MUL -> inteira ? LMUL : DMUL;
+            case DIV -> inteira ? LDIV : DDIV;
+            case REM -> inteira ? LREM : DREM;
+            default -> throw new IllegalStateException("operação sem tradução para bytecode: " + op);
+        });
+        c.local(inteira ? LSTORE : DSTORE, local(p.a(pc)));
+    }
+
+    /**
+     * Empilha o resultado de lcmp/dcmp para a comparação da instrução pc e
+     * devolve o ifxx que desvia quando ela vale. Para reais, dcmpg/dcmpl é
+     * escolhido de modo que NaN torne a relação falsa, como em Java; assim
+     * o ifxx negado desvia exatamente quando a relação não vale.
+     */
+    private static int comparar(Codigo c, TacProgram p, Pool cp, int pc) {
+        TacInstr.Op op = p.op(pc);
+        TacInstr.Op rel = TacInstr.familia(op);
+        carregar(c, p, p.b(pc));
+        operando(c, p, cp, pc);
+        if (TacInstr.ehInteira(op)) c.op(LCMP);
+        else c.op(rel == TacInstr.Op.CMPLT || rel == TacInstr.Op.CMPLE ? DCMPG : DCMPL);
+        return switch (rel) {
+            case CMPLT -> IFLT;
+            case CMPGT -> IFGT;
+            case CMPEQ -> IFEQ;
+            case CMPLE -> IFLE;
+            case CMPGE -> IFGE;
+            default -> IFNE;
+        };
+    }
+
+    private static int negado(int se) {
+        return switch (se) {
+            case IFEQ -> IFNE;
+            case IFNE -> IFEQ;
+            case IFLT -> IFGE;
+            case IFGE -> IFLT;
+            case IFGT -> IFLE;
+            default -> IFGT;
+        };
+    }
+
+    /** Monta o classfile: classe final com o método estático run(Saida). */
+    private static byte[] classe(Pool cp, Codigo c, TacProgram p, int classeSaida) {
+        int esta = cp.classe(NOME);
+        int superclasse = cp.classe("java/lang/Object");
+        int nomeRun = cp.utf8("run");
+        int descritor = cp.utf8(DESCRITOR);
+        int atributoCode = cp.utf8("Code");
+        int atributoQuadros = cp.utf8("StackMapTable");
+
+        // todos os quadros: locais [Saida, slots...], pilha vazia
+        Bytes quadros = new Bytes();
+        int anterior = -1;
+        for (int offset : c.quadros) {
+            if (anterior < 0) {
+                quadros.u1(255);                              // full_frame
+                quadros.u2(offset);
+                quadros.u2(1 + p.numSlots());
+                quadros.u1(7);                                // Object
+                quadros.u2(classeSaida);
+                for (int s = 0; s < p.numSlots(); s++) quadros.u1(inteiro(p, s) ? 4 : 3);   // Long / Double
+                quadros.u2(0);
+            } else {
+                int delta = offset - anterior - 1;
+                if (delta < 64) {
+                    quadros.u1(delta);                        // same_frame
+                } else {
+                    quadros.u1(251);                          // same_frame_extended
+                    quadros.u2(delta);
+                }
+            }
+            anterior = offset;
+        }
+
+        int maxLocais = local(p.numSlots());
+        if (c.bytes.n > 65535 || maxLocais > 65535 || cp.tamanho() > 65535 || c.quadros.size() > 65535) {
+            throw new IllegalStateException("programa grande demais para um método da JVM");
+        }
+
+        Bytes f = new Bytes();
+        f.u4(0xCAFEBABE);
+        f.u2(0);
+        f.u2(61);                                             // Java 17
+        f.u2(cp.tamanho());
+        f.todos(cp.bytes);
+        f.u2(0x0010 | 0x0020);                                // ACC_FINAL | ACC_SUPER
+        f.u2(esta);
+        f.u2(superclasse);
+        f.u2(0);                                              // interfaces
+        f.u2(0);                                              // campos
+        f.u2(1);                                              // métodos
+        f.u2(0x0001 | 0x0008);                                // ACC_PUBLIC | ACC_STATIC
+        f.u2(nomeRun);
+        f.u2(descritor);
+        f.u2(1);
+        boolean comQuadros = !c.quadros.isEmpty();
+        f.u2(atributoCode);
+        f.u4(12 + c.bytes.n + (comQuadros ? 8 + quadros.n : 0));
+        f.u2(4);                                              // max_stack: dois long/double
+        f.u2(maxLocais);
+        f.u4(c.bytes.n);
+        f.todos(c.bytes);
+        f.u2(0);                                              // exceções
+        f.u2(comQuadros ? 1 : 0);
+        if (comQuadros) {
+            f.u2(atributoQuadros);
+            f.u4(2 + quadros.n);
+            f.u2(c.quadros.size());
+            f.todos(quadros);
+        }
+        f.u2(0);                                              // atributos da classe
+        return f.paraArray();
+    }
+
+    // ---------------- classfile ----------------
+
+    /** Bytes em big-endian, como o classfile exige. */
+    private static final class Bytes {
+        byte[] b = new byte[256];
+        int n;
+
+        void u1(int v) {
+            if (n == b.length) b = Arrays.copyOf(b, 2 * n);
+            b[n++] = (byte) v;
+        }
+
+        void u2(int v) { u1(v >>> 8); u1(v); }
+        void u4(int v) { u2(v >>> 16); u2(v); }
+        void u8(long v) { u4((int) (v >>> 32)); u4((int) v); }
+
+        void todos(Bytes outro) {
+            for (int i = 0; i < outro.n; i++) u1(outro.b[i]);
+        }
+
+        byte[] paraArray() {
+            return Arrays.copyOf(b, n);
+        }
+    }
+
+    /** Pool de constantes, sem repetições. */
+    private static final class Pool {
+        final Bytes bytes = new Bytes();
+        private final Map<String, Integer> indices = new HashMap<>();
+        private int proximo = 1;
+
+        /** constant_pool_count: o próximo índice livre. */
+        int tamanho() { return proximo; }
+
+        int utf8(String s) {
+            Integer i = indices.get("U" + s);
+            if (i != null) return i;
+            byte[] u = s.getBytes(StandardCharsets.UTF_8);   // só nomes ASCII
+            bytes.u1(1);
+            bytes.u2(u.length);
+            for (byte x : u) bytes.u1(x);
+            return registrar("U" + s, 1);
+        }
+
+        int classe(String nome) {
+            Integer i = indices.get("C" + nome);
+            if (i != null) return i;
+            int u = utf8(nome);
+            bytes.u1(7);
+            bytes.u2(u);
+            return registrar("C" + nome, 1);
+        }
+
+        int longo(long v) {
+            Integer i = indices.get("J" + v);
+            if (i != null) return i;
+            bytes.u1(5);
+            bytes.u8(v);
+            return registrar("J" + v, 2);
+        }
+
+        int duplo(double v) {
+            long bits = Double.doubleToRawLongBits(v);
+            Integer i = indices.get("D" + bits);
+            if (i != null) return i;
+            bytes.u1(6);
+            bytes.u8(bits);
+            return registrar("D" + bits, 2);
+        }
+
+        int metodoInterface(String dono, String nome, String descritor) {
+            String chave = "I" + dono + "." + nome + descritor;
+            Integer i = indices.get(chave);
+            if (i != null) return i;
+            int classe = classe(dono);
+            int u1 = utf8(nome), u2 = utf8(descritor);
+            bytes.u1(12);                                     // NameAndType
+            bytes.u2(u1);
+            bytes.u2(u2);
+            int nomeETipo = registrar("N" + nome + descritor, 1);
+            bytes.u1(11);                                     // InterfaceMethodref
+            bytes.u2(classe);
+            bytes.u2(nomeETipo);
+            return registrar(chave, 1);
+        }
+
+        private int registrar(String chave, int largura) {
+            int i = proximo;
+            indices.put(chave, i);
+            proximo += largura;
+            return i;
+        }
+    }
+
+    /** Código do método, com rótulos resolvidos no fim e os offsets que pedem quadro. */
+    private static final class Codigo {
+        final Bytes bytes = new Bytes();
+        final TreeSet<Integer> quadros = new TreeSet<>();
+        private final List<Integer> posicoes = new ArrayList<>();   // rótulo -> offset
+        private final List<int[]> remendos = new ArrayList<>();     // {offset do desvio, rótulo}
+
+        int rotulo() {
+            posicoes.add(-1);
+            return posicoes.size() - 1;
+        }
+
+        void marcar(int rotulo) {
+            posicoes.set(rotulo, bytes.n);
+        }
+
+        void op(int opcode) {
+            bytes.u1(opcode);
+        }
+
+        void u2(int opcode, int indice) {
+            bytes.u1(opcode);
+            bytes.u2(indice);
+        }
+
+        void local(int opcode, int indice) {
+            if (indice <= 255) {
+                bytes.u1(opcode);
+                bytes.u1(indice);
+            } else {
+                bytes.u1(WIDE);
+                bytes.u1(opcode);
+                bytes.u2(indice);
+            }
+        }
+
+        void desvio(int opcode, int rotulo) {
+            remendos.add(new int[] { bytes.n, rotulo });
+            bytes.u1(opcode);
+            bytes.u2(0);
+            if (opcode == GOTO) quadros.add(bytes.n);         // o que vem depois só é alcançado por desvio
+        }
+
+        /** Preenche os deslocamentos; todo alvo de desvio recebe um quadro. */
+        void resolver() {
+            for (int[] r : remendos) {
+                int alvo = posicoes.get(r[1]);
+                int delta = alvo - r[0];
+                if (delta < Short.MIN_VALUE || delta > Short.MAX_VALUE) {
+                    throw new IllegalStateException("desvio fora do alcance de 16 bits");
+                }
+                bytes.b[r[0] + 1] = (byte) (delta >>> 8);
+                bytes.b[r[0] + 2] = (byte) delta;
+                quadros.add(alvo);
+            }
+            quadros.removeIf(o -> o >= bytes.n);
+        }
+    }
+}
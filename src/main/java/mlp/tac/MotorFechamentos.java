@@ -0,0 +1,266 @@
+package mlp.tac;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Motor de execução por fechamentos (--motor=fechamentos).
+ *
+ * Em vez do switch por instrução do InterpretadorTAC, o TAC é compilado uma
+ * vez para uma árvore de lambdas: cada instrução vira um Passo com os slots
+ * e constantes já capturados (nada é decodificado durante a execução) e cada
+ * bloco básico termina num Fim que devolve o índice do próximo bloco. Só o
+ * fluxo de controle passa pelo laço despachante, que roda os passos do
+ * bloco e segue para o bloco devolvido pelo Fim.
+ *
+ * As fusões são as mesmas do InterpretadorTAC (mesma condição de
+ * vivacidade): uma comparação seguida do desvio que a lê vira o próprio Fim
+ * do bloco, e uma operação seguida de STORE do resultado escreve direto no
+ * destino do STORE. Perfil e limite de instruções ficam só com o
+ * InterpretadorTAC.
+ */
+public class MotorFechamentos implements Motor {
+
+    /** Instrução sem desvio, com slots e constantes capturados. */
+    @FunctionalInterface
+    interface Passo {
+        void run(double[] m, long[] l);
+    }
+
+    /** Fim de bloco: índice do próximo bloco, ou -1 no fim do programa. */
+    @FunctionalInterface
+    interface Fim {
+        int run(double[] m, long[] l);
+    }
+
+    private record Bloco(Passo[] passos, Fim fim) {}
+
+    private final InterpretadorTAC.Saida saida;
+
+    public MotorFechamentos() {
+        this(InterpretadorTAC.PADRAO);
+    }
+
+    /** @param saida recebe cada valor escrito por PRINT, em ordem */
+    public MotorFechamentos(InterpretadorTAC.Saida saida) {
+        this.saida = saida;
+    }
+
+    @Override
+    public void executar(List<TacInstr> instrucoes) {
+        TacProgram p = TacProgram.montar(instrucoes);
+        Bloco[] blocos = compilar(p, InterpretadorTAC.fundiveis(instrucoes, p));
+        double[] m = new double[p.numSlots()];
+        long[] l = new long[p.numSlots()];
+
+        int b = (blocos.length == 0) ? -1 : 0;
+        while (b >= 0) {
+            Bloco x = blocos[b];
+            for (Passo s : x.passos) s.run(m, l);
+            b = x.fim.run(m, l);
+        }
+    }
+
+    // ---------------- compilação ----------------
+
+    private Bloco[] compilar(TacProgram p, boolean[] fundivel) {
+        int n = p.tamanho();
+
+        // líderes: início, alvos de desvio e instruções depois de desvio
+        boolean[] lider = new boolean[n + 1];
+        lider[0] = true;
+        for (int pc = 0; pc < n; pc++) {
+            switch (p.op(pc)) {
+                case JMP -> { lider[p.a(pc)] = true; lider[pc + 1] = true; }
+                case JMPFALSE, JMPTRUE -> { lider[p.b(pc)] = true; lider[pc + 1] = true; }
+                default -> {}
+            }
+        }
+        int[] indice = new int[n + 1];                       // instrução -> bloco; n (fim) -> -1
+        int nb = 0;
+        for (int pc = 0; pc < n; pc++) {
+            if (lider[pc]) nb++;
+            indice[pc] = nb - 1;
+        }
+        indice[n] = -1;
+
+        Bloco[] blocos = new Bloco[nb];
+        int ini = 0;
+        while (ini < n) {
+            int fim = ini + 1;
+            while (fim < n && !lider[fim]) fim++;
+            blocos[indice[ini]] = bloco(p, fundivel, indice, ini, fim);
+            ini = fim;
+        }
+        return blocos;
+    }
+
+    /** Compila as instruções [ini, fim) de um bloco. */
+    private Bloco bloco(TacProgram p, boolean[] fundivel, int[] indice, int ini, int fim) {
+        List<Passo> passos = new ArrayList<>();
+        int queda = indice[fim];                             // bloco seguinte no layout (ou -1)
+        Fim sai = (m, l) -> queda;
+
+        for (int pc = ini; pc < fim; pc++) {
+            TacInstr.Op op = p.op(pc);
+            TacInstr.Op seguinte = (pc + 1 < fim) ? p.op(pc + 1) : null;
+
+            if (pc == fim - 1 && (op == TacInstr.Op.JMP || op == TacInstr.Op.JMPFALSE || op == TacInstr.Op.JMPTRUE)) {
+                sai = desvio(p, pc, indice, queda);
+            } else if (fundivel[pc] && pc + 1 == fim - 1 && TacInstr.ehComparacao(op)
+                       && (seguinte == TacInstr.Op.JMPFALSE || seguinte == TacInstr.Op.JMPTRUE)) {
+                int alvo = indice[p.b(pc + 1)];
+                boolean seVerdade = seguinte == TacInstr.Op.JMPTRUE;
+                sai = comparaEDesvia(p, pc, seVerdade ? alvo : queda, seVerdade ? queda : alvo);
+                pc++;
+            } else if (fundivel[pc] && guardaDireto(op)
+                       && (seguinte == TacInstr.Op.STORE || seguinte == TacInstr.Op.LOAD)) {
+                passos.add(passo(p, op, p.a(pc + 1), p.b(pc), p.c(pc)));   // escreve no destino do STORE
+                pc++;
+            } else {
+                Passo s = passo(p, op, p.a(pc), p.b(pc), p.c(pc));
+                if (s != null) passos.add(s);
+            }
+        }
+        return new Bloco(passos.toArray(new Passo[0]), sai);
+    }
+
+    /** Operações cujo resultado pode ir direto para o destino de um STORE seguinte. */
+    private static boolean guardaDireto(TacInstr.Op op) {
+        return Aritmetica.ehBinaria(op) && !TacInstr.ehComparacao(op) || op == TacInstr.Op.ITOR;
+    }
+
+    /** Passo de uma instrução sem desvio, ou null se ela não faz nada (NOP). */
+    private Passo passo(TacProgram p, TacInstr.Op op, int a, int b, int c) {
+        boolean inteiro = p.tipo(a) == TacProgram.Tipo.INTEIRO;
+        InterpretadorTAC.Saida out = saida;
+        return switch (op) {
+            case LOADI -> {
+                if (inteiro) {
+                    long v = p.constanteInteira(b);
+                    yield (m, l) -> l[a] = v;
+                }
+                double v = p.constante(b);
+                yield (m, l) -> m[a] = v;
+            }
+            case LOAD, STORE -> inteiro ? (m, l) -> l[a] = l[b] : (m, l) -> m[a] = m[b];
+            case PRINT -> inteiro ? (m, l) -> out.inteiro(l[a]) : (m, l) -> out.real(m[a]);
+
+            case ADD -> (m, l) -> m[a] = m[b] + m[c];
+            case SUB -> (m, l) -> m[a] = m[b] - m[c];
+            case MUL -> (m, l) -> m[a] = m[b] * m[c];
+            case DIV -> (m, l) -> m[a] = m[b] / m[c];
+            case REM -> (m, l) -> m[a] = m[b] % m[c];
+            case CMPLT -> (m, l) -> l[a] = (m[b] <  m[c]) ? 1 : 0;
+            case CMPGT -> (m, l) -> l[a] = (m[b] >  m[c]) ? 1 : 0;
+            case CMPEQ -> (m, l) -> l[a] = (m[b] == m[c]) ? 1 : 0;
+            case CMPLE -> (m, l) -> l[a] = (m[b] <= m[c]) ? 1 : 0;
+            case CMPGE -> (m, l) -> l[a] = (m[b] >= m[c]) ? 1 : 0;
+            case CMPNE -> (m, l) -> l[a] = (m[b] != m[c]) ? 1 : 0;
+
+            case ADDI, SUBI, MULI, CMPLTI, CMPGTI, CMPEQI, CMPLEI, CMPGEI, CMPNEI -> {
+                double k = p.constante(c);
+                yield switch (op) {
+                    case ADDI -> (m, l) -> m[a] = m[b] + k;
+                    case SUBI -> (m, l) -> m[a] = m[b] - k;
+                    case MULI -> (m, l) -> m[a] = m[b] * k;
+                    case CMPLTI -> (m, l) -> l[a] = (m[b] <  k) ? 1 : 0;
+                    case CMPGTI -> (m, l) -> l[a] = (m[b] >  k) ? 1 : 0;
+                    case CMPEQI -> (m, l) -> l[a] = (m[b] == k) ? 1 : 0;
+                    case CMPLEI -> (m, l) -> l[a] = (m[b] <= k) ? 1 : 0;
+                    case CMPGEI -> (m, l) -> l[a] = (m[b] >= k) ? 1 : 0;
+                    default     -> (m, l) -> l[a] = (m[b] != k) ? 1 : 0;
+                };
+            }
+
+            case IADD -> (m, l) -> l[a] = l[b] + l[c];
+            case ISUB -> (m, l) -> l[a] = l[b] - l[c];
+            case IMUL -> (m, l) -> l[a] = l[b] * l[c];
+            case IDIV -> (m, l) -> l[a] = l[b] / l[c];
+            case IREM -> (m, l) -> l[a] = l[b] % l[c];
+            case ICMPLT -> (m, l) -> l[a] = (l[b] <  l[c]) ? 1 : 0;
+            case ICMPGT -> (m, l) -> l[a] = (l[b] >  l[c]) ? 1 : 0;
+            case ICMPEQ -> (m, l) -> l[a] = (l[b] == l[c]) ? 1 : 0;
+            case ICMPLE -> (m, l) -> l[a] = (l[b] <= l[c]) ? 1 : 0;
+            case ICMPGE -> (m, l) -> l[a] = (l[b] >= l[c]) ? 1 : 0;
+            case ICMPNE -> (m, l) -> l[a] = (l[b] != l[c]) ? 1 : 0;
+
+            case IADDI, ISUBI, IMULI, ICMPLTI, ICMPGTI, ICMPEQI, ICMPLEI, ICMPGEI, ICMPNEI -> {
+                long k = p.constanteInteira(c);
+                yield switch (op) {
+                    case IADDI -> (m, l) -> l[a] = l[b] + k;
+                    case ISUBI -> (m, l) -> l[a] = l[b] - k;
+                    case IMULI -> (m, l) -> l[a] = l[b] * k;
+                    case ICMPLTI -> (m, l) -> l[a] = (l[b] <  k) ? 1 : 0;
+                    case ICMPGTI -> (m, l) -> l[a] = (l[b] >  k) ? 1 : 0;
+                    case ICMPEQI -> (m, l) -> l[a] = (l[b] == k) ? 1 : 0;
+                    case ICMPLEI -> (m, l) -> l[a] = (l[b] <= k) ? 1 : 0;
+                    case ICMPGEI -> (m, l) -> l[a] = (l[b] >= k) ? 1 : 0;
+                    default      -> (m, l) -> l[a] = (l[b] != k) ? 1 : 0;
+                };
+            }
+
+            case ITOR -> (m, l) -> m[a] = l[b];
+
+            case NOP, LABEL -> null;
+            case JMP, JMPFALSE, JMPTRUE -> throw new IllegalStateException("desvio no meio do bloco: " + op);
+        };
+    }
+
+    /** Fim de um bloco terminado em JMP/JMPFALSE/JMPTRUE. */
+    private static Fim desvio(TacProgram p, int pc, int[] indice, int queda) {
+        if (p.op(pc) == TacInstr.Op.JMP) {
+            int alvo = indice[p.a(pc)];
+            return (m, l) -> alvo;
+        }
+        int a = p.a(pc);
+        int alvo = indice[p.b(pc)];
+        boolean seVerdade = p.op(pc) == TacInstr.Op.JMPTRUE;
+        int sim = seVerdade ? alvo : queda;                   // condição != 0
+        int nao = seVerdade ? queda : alvo;                   // condição == 0
+        if (p.tipo(a) == TacProgram.Tipo.INTEIRO) return (m, l) -> (l[a] != 0) ? sim : nao;
+        return (m, l) -> (m[a] != 0) ? sim : nao;
+    }
+
+    /** Fim fundido "compara e desvia": vai para 'sim' se a comparação da instrução pc vale. */
+    private static Fim comparaEDesvia(TacProgram p, int pc, int sim, int nao) {
+        TacInstr.Op op = p.op(pc);
+        int b = p.b(pc), c = p.c(pc);
+        if (TacInstr.ehImediata(op) && TacInstr.ehInteira(op)) {
+            long k = p.constanteInteira(c);
+            return switch (op) {
+                case ICMPLTI -> (m, l) -> (l[b] <  k) ? sim : nao;
+                case ICMPGTI -> (m, l) -> (l[b] >  k) ? sim : nao;
+                case ICMPEQI -> (m, l) -> (l[b] == k) ? sim : nao;
+                case ICMPLEI -> (m, l) -> (l[b] <= k) ? sim : nao;
+                case ICMPGEI -> (m, l) -> (l[b] >= k) ? sim : nao;
+                default      -> (m, l) -> (l[b] != k) ? sim : nao;
+            };
+        }
+        if (TacInstr.ehImediata(op)) {
+            double k = p.constante(c);
+            return switch (op) {
+                case CMPLTI -> (m, l) -> (m[b] <  k) ? sim : nao;
+                case CMPGTI -> (m, l) -> (m[b] >  k) ? sim : nao;
+                case CMPEQI -> (m, l) -> (m[b] == k) ? sim : nao;
+                case CMPLEI -> (m, l) -> (m[b] <= k) ? sim : nao;
+                case CMPGEI -> (m, l) -> (m[b] >= k) ? sim : nao;
+                default     -> (m, l) -> (m[b] != k) ? sim : nao;
+            };
+        }
+        return switch (op) {
+            case ICMPLT -> (m, l) -> (l[b] <  l[c]) ? sim : nao;
+            case ICMPGT -> (m, l) -> (l[b] >  l[c]) ? sim : nao;
+            case ICMPEQ -> (m, l) -> (l[b] == l[c]) ? sim : nao;
+            case ICMPLE -> (m, l) -> (l[b] <= l[c]) ? sim : nao;
+            case ICMPGE -> (m, l) -> (l[b] >= l[c]) ? sim : nao;
+            case ICMPNE -> (m, l) -> (l[b] != l[c]) ? sim : nao;
+            case CMPLT  -> (m, l) -> (m[b] <  m[c]) ? sim : nao;
+            case CMPGT  -> (m, l) -> (m[b] >  m[c]) ? sim : nao;
+            case CMPEQ  -> (m, l) -> (m[b] == m[c]) ? sim : nao;
+            case CMPLE  -> (m, l) -> (m[b] <= m[c]) ? sim : nao;
+            case CMPGE  -> (m, l) -> (m[b] >= m[c]) ? sim : nao;
+            default     -> (m, l) -> (m[b] != m[c]) ? sim : nao;
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package mlp.tac;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Motor que compila o TAC para C (EmissorC) com o cc instalado e roda o
+ * binário nativo (--motor=nativo).
+ *
+ * O programa escreve direto na saída padrão do processo, no mesmo formato
+ * do InterpretadorTAC.PADRAO (por isso este motor não recebe uma Saida), e
+ * a divisão inteira por zero já sai com a mensagem de Main. Se o cc não
+ * existir ou a compilação falhar, o programa roda no InterpretadorTAC.
+ */
+public class MotorNativo implements Motor {
+
+    /** Compilador e opções: ISO C99 e sem FMA, para as contas em double baterem com a JVM. */
+    private static final List<String> CC = List.of("cc", "-std=c99", "-O2", "-ffp-contract=off");
+
+    @Override
+    public void executar(List<TacInstr> instrucoes) {
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("mlp");
+            Path fonte = dir.resolve("programa.c");
+            Path binario = dir.resolve("programa");
+            Files.writeString(fonte, EmissorC.emitir(instrucoes), StandardCharsets.UTF_8);
+
+            if (!compilar(fonte, binario)) {
+                new InterpretadorTAC().executar(instrucoes);
+                return;
+            }
+
+            System.out.flush();
+            Process exec = new ProcessBuilder(binario.toString()).inheritIO().start();
+            int status = exec.waitFor();
+            if (status != 0 && status != EmissorC.DIVISAO_POR_ZERO) {
+                throw new IllegalStateException("programa nativo terminou com código " + status);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("falha ao rodar o programa nativo", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            apagar(dir);
+        }
+    }
+
+    /** @return false (já avisando) se o cc não está disponível ou recusou o programa */
+    private static boolean compilar(Path fonte, Path binario) throws IOException, InterruptedException {
+        List<String> comando = new ArrayList<>(CC);
+        comando.addAll(List.of("-o", binario.toString(), fonte.toString(), "-lm"));
+        Process cc;
+        try {
+            cc = new ProcessBuilder(comando).redirectErrorStream(true).start();
+        } catch (IOException e) {
+            System.err.println("motor nativo indisponível (cc não encontrado); usando o interpretador");
+            return false;
+        }
+        String mensagens = new String(cc.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (cc.waitFor() != 0) {
+            System.err.print(mensagens);
+            System.err.println("motor nativo indisponível (cc falhou); usando o interpretador");
+            return false;
+        }
+        return true;
+    }
+
+    private static void apagar(Path dir) {
+        if (dir == null) return;
+        try (var arquivos = Files.list(dir)) {
+            for (Path f : (Iterable<Path>) arquivos::iterator) Files.deleteIfExists(f);
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            // temporário fica para trás; não afeta a execução
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package mlp.tac;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import mlp.tac.cfg.BlocoBasico;
+import mlp.tac.cfg.Dominadores;
+import mlp.tac.cfg.GrafoFluxo;
+import mlp.tac.cfg.LacoNatural;
+import mlp.tac.cfg.Lacos;
+
+/**
+ * Perfil de execução de um programa TAC: quantas vezes cada instrução rodou
+ * e quantas vezes cada JMPFALSE/JMPTRUE saltou, indexados pela posição da
+ * instrução (pc) no código final.
+ *
+ * O arquivo fica ao lado do fonte (prog.mlp -> prog.mlp.perfil), em texto:
+ *   assinatura <hash do código>
+ *   instrucoes <n>
+ *   exec <pc> <vezes>                       (só pcs que rodaram)
+ *   desvio <pc> <tomados> <nao-tomados>     (desvios condicionais)
+ *   laco <rotulo> <entradas> <voltas>       (laços naturais)
+ *
+ * A assinatura é o hash do texto do código em que o perfil foi coletado;
+ * um perfil só é usado se o código atual tiver a mesma assinatura, já que os
+ * contadores valem por posição. As linhas "laco" são informativas: o número
+ * de voltas de cada laço sai das contagens das arestas de volta.
+ */
+public final class Perfil {
+
+    /** Laço natural com as vezes em que foi iniciado e o total de voltas. */
+    public record Laco(String rotulo, long entradas, long voltas) {}
+
+    private final String assinatura;
+    final long[] execucoes;
+    final long[] tomados;
+    private final List<Laco> lacos = new ArrayList<>();
+
+    private Perfil(String assinatura, int n) {
+        this.assinatura = assinatura;
+        this.execucoes = new long[n];
+        this.tomados = new long[n];
+    }
+
+    /** Perfil zerado para coletar a execução de 'code'. */
+    public static Perfil para(List<TacInstr> code) {
+        return new Perfil(assinatura(code), code.size());
+    }
+
+    public static String assinatura(List<TacInstr> code) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            for (TacInstr in : code) {
+                md.update(in.toString().getBytes(StandardCharsets.UTF_8));
+                md.update((byte) '\n');
+            }
+            StringBuilder sb = new StringBuilder();
+            byte[] h = md.digest();
+            for (int i = 0; i < 8; i++) sb.append(String.format("%02x", h[i]));
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** true se o perfil foi coletado exatamente sobre este código. */
+    public boolean correspondeA(List<TacInstr> code) {
+        return code.size() == execucoes.length && assinatura.equals(assinatura(code));
+    }
+
+    public long execucoes(int pc)   { return execucoes[pc]; }
+    public long tomados(int pc)     { return tomados[pc]; }
+    public long naoTomados(int pc)  { return execucoes[pc] - tomados[pc]; }
+    public List<Laco> getLacos()    { return lacos; }
+
+    // ---------------- arestas do grafo ----------------
+
+    /** pc da primeira instrução de cada bloco (os blocos seguem a ordem do código). */
+    public static int[] inicios(GrafoFluxo g) {
+        int[] r = new int[g.tamanho()];
+        int pc = 0;
+        for (BlocoBasico b : g.blocos()) {
+            r[b.id] = pc;
+            pc += b.instrucoes.size();
+        }
+        return r;
+    }
+
+    /** Vezes em que o controle passou do bloco 'de' para o bloco 'para'. */
+    public long aresta(GrafoFluxo g, int[] inicio, BlocoBasico de, BlocoBasico para) {
+        int pc = inicio[de.id] + de.instrucoes.size() - 1;
+        TacInstr ult = de.ultima();
+        if (ult.op != TacInstr.Op.JMPFALSE && ult.op != TacInstr.Op.JMPTRUE) return execucoes[pc];
+
+        boolean alvo = g.blocoDoRotulo(ult.a2) == para;
+        boolean queda = para.id == de.id + 1;
+        if (alvo && queda) return execucoes[pc];
+        return alvo ? tomados[pc] : naoTomados(pc);
+    }
+
+    // ---------------- arquivo ----------------
+
+    /** Grava o perfil, calculando antes as voltas de cada laço de 'code'. */
+    public void salvar(Path arquivo, List<TacInstr> code) throws IOException {
+        calcularLacos(code);
+
+        List<String> linhas = new ArrayList<>();
+        linhas.add("# perfil de execucao MLP (--coletar-perfil)");
+        linhas.add("assinatura " + assinatura);
+        linhas.add("instrucoes " + execucoes.length);
+        for (int pc = 0; pc < execucoes.length; pc++) {
+            if (execucoes[pc] != 0) linhas.add("exec " + pc + " " + execucoes[pc]);
+        }
+        for (int pc = 0; pc < code.size(); pc++) {
+            TacInstr.Op op = code.get(pc).op;
+            if ((op == TacInstr.Op.JMPFALSE || op == TacInstr.Op.JMPTRUE) && execucoes[pc] != 0) {
+                linhas.add("desvio " + pc + " " + tomados[pc] + " " + naoTomados(pc));
+            }
+        }
+        for (Laco l : lacos) {
+            linhas.add("laco " + l.rotulo() + " " + l.entradas() + " " + l.voltas());
+        }
+        Files.write(arquivo, linhas, StandardCharsets.UTF_8);
+    }
+
+    public static Perfil carregar(Path arquivo) throws IOException {
+        Perfil p = null;
+        String assinatura = null;
+        for (String linha : Files.readAllLines(arquivo, StandardCharsets.UTF_8)) {
+            String[] c = linha.trim().split("\\s+");
+            if (c[0].isEmpty() || c[0].startsWith("#")) continue;
+            try {
+                switch (c[0]) {
+                    case "assinatura" -> assinatura = c[1];
+                    case "instrucoes" -> p = new Perfil(assinatura, Integer.parseInt(c[1]));
+                    case "exec" -> p.execucoes[Integer.parseInt(c[1])] = Long.parseLong(c[2]);
+                    case "desvio" -> p.tomados[Integer.parseInt(c[1])] = Long.parseLong(c[2]);
+                    case "laco" -> p.lacos.add(new Laco(c[1], Long.parseLong(c[2]), Long.parseLong(c[3])));
+                    default -> throw new IOException("linha desconhecida no perfil: " + linha);
+                }
+            } catch (RuntimeException e) {
+                throw new IOException("perfil inválido (" + arquivo + "): " + linha, e);
+            }
+        }
+        if (p == null || assinatura == null) throw new IOException("perfil incompleto: " + arquivo);
+        return p;
+    }
+
+    private void calcularLacos(List<TacInstr> code) {
+        lacos.clear();
+        if (code.isEmpty()) return;
+        GrafoFluxo g = GrafoFluxo.construir(code);
+        int[] inicio = inicios(g);
+        for (LacoNatural l : new Lacos(g, new Dominadores(g)).todos()) {
+            if (l.cabecalho.rotulo() == null) continue;
+            long voltas = 0;
+            for (BlocoBasico f : l.fontesRetorno) voltas += aresta(g, inicio, f, l.cabecalho);
+            long entradas = execucoes[inicio[l.cabecalho.id]] - voltas;
+            lacos.add(new Laco(l.cabecalho.rotulo(), entradas, voltas));
+        }
+    }
+}
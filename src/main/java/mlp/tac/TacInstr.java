@@ -1,11 +1,29 @@
 package mlp.tac;
 
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+/**
+ * Instrução de três endereços.
+ *
+ * As operações aritméticas existem em duas versões: sobre reais (ADD, DIV,
+ * CMPLT, ...) e sobre inteiros (IADD, IDIV, ICMPLT, ...), escolhidas pelo
+ * gerador conforme os tipos semânticos; ITOR converte inteiro em real onde
+ * os dois se encontram. Comparações dão sempre um inteiro (1 ou 0). O tipo
+ * de um LOADI é o do literal: só dígitos é inteiro ("7"), o resto é real
+ * ("7.0", "NaN").
+ */
 public class TacInstr {
 
     public enum Op {
         LOAD, LOADI, STORE,
-        ADD, ADDI, SUB, SUBI, MUL, DIV, REM,
+        ADD, ADDI, SUB, SUBI, MUL, MULI, DIV, REM,
         CMPGT, CMPLT, CMPEQ, CMPLE, CMPGE, CMPNE,
+        CMPGTI, CMPLTI, CMPEQI, CMPLEI, CMPGEI, CMPNEI,
+        IADD, IADDI, ISUB, ISUBI, IMUL, IMULI, IDIV, IREM,
+        ICMPGT, ICMPLT, ICMPEQ, ICMPLE, ICMPGE, ICMPNE,
+        ICMPGTI, ICMPLTI, ICMPEQI, ICMPLEI, ICMPGEI, ICMPNEI,
+        ITOR,
         JMP, JMPFALSE, JMPTRUE,
         LABEL, PRINT, NOP
     }
@@ -58,6 +76,20 @@ public class TacInstr {
         return new TacInstr(Op.MUL, dst, a, b, null);
     }
 
+    public static TacInstr muli(String dst, String a, String imm) {
+        return new TacInstr(Op.MULI, dst, a, imm, null);
+    }
+
+    /** "op dst, a, imm" com op na forma imediata (ADDI, MULI, CMPLTI, ...). */
+    public static TacInstr imediata(Op op, String dst, String a, String imm) {
+        return new TacInstr(op, dst, a, imm, null);
+    }
+
+    /** Converte o inteiro src em real. */
+    public static TacInstr itor(String dst, String src) {
+        return new TacInstr(Op.ITOR, dst, src, null, null);
+    }
+
     public static TacInstr div(String dst, String a, String b) {
         return new TacInstr(Op.DIV, dst, a, b, null);
     }
@@ -114,6 +146,194 @@ public class TacInstr {
         return new TacInstr(Op.NOP, null, null, null, null);
     }
 
+    // ---------- operandos (usado pelos passes de otimização) ----------
+
+    /** Nome escrito pela instrução (sempre a1), ou null se ela não define nada. */
+    public String definido() {
+        return switch (op) {
+            case JMP, JMPFALSE, JMPTRUE, LABEL, PRINT, NOP -> null;
+            default -> a1;
+        };
+    }
+
+    /** Nomes lidos pela instrução (imediatos e rótulos não entram). */
+    public List<String> usados() {
+        return switch (op) {
+            case LOADI, JMP, LABEL, NOP -> List.of();
+            case JMPFALSE, JMPTRUE, PRINT -> List.of(a1);
+            case LOAD, STORE, ITOR -> List.of(a2);
+            default -> ehImediata(op) ? List.of(a2) : List.of(a2, a3);
+        };
+    }
+
+    /** Cópia com cada nome lido substituído por f(nome). */
+    public TacInstr trocarUsos(UnaryOperator<String> f) {
+        return switch (op) {
+            case LOADI, JMP, LABEL, NOP -> this;
+            case JMPFALSE, JMPTRUE, PRINT -> new TacInstr(op, f.apply(a1), a2, a3, label);
+            case LOAD, STORE, ITOR -> new TacInstr(op, a1, f.apply(a2), a3, label);
+            default -> ehImediata(op) ? new TacInstr(op, a1, f.apply(a2), a3, label)
+                                      : new TacInstr(op, a1, f.apply(a2), f.apply(a3), label);
+        };
+    }
+
+    // ---------- formas imediatas ----------
+
+    /** Forma "op dst, a, imm" de uma operação binária, ou null se ela não tem. */
+    public static Op formaImediata(Op op) {
+        return switch (op) {
+            case ADD -> Op.ADDI;
+            case SUB -> Op.SUBI;
+            case MUL -> Op.MULI;
+            case CMPGT -> Op.CMPGTI;
+            case CMPLT -> Op.CMPLTI;
+            case CMPEQ -> Op.CMPEQI;
+            case CMPLE -> Op.CMPLEI;
+            case CMPGE -> Op.CMPGEI;
+            case CMPNE -> Op.CMPNEI;
+            case IADD -> Op.IADDI;
+            case ISUB -> Op.ISUBI;
+            case IMUL -> Op.IMULI;
+            case ICMPGT -> Op.ICMPGTI;
+            case ICMPLT -> Op.ICMPLTI;
+            case ICMPEQ -> Op.ICMPEQI;
+            case ICMPLE -> Op.ICMPLEI;
+            case ICMPGE -> Op.ICMPGEI;
+            case ICMPNE -> Op.ICMPNEI;
+            default -> null;
+        };
+    }
+
+    /** Operação com os dois operandos em nomes; a própria op se não for imediata. */
+    public static Op formaBase(Op op) {
+        return switch (op) {
+            case ADDI -> Op.ADD;
+            case SUBI -> Op.SUB;
+            case MULI -> Op.MUL;
+            case CMPGTI -> Op.CMPGT;
+            case CMPLTI -> Op.CMPLT;
+            case CMPEQI -> Op.CMPEQ;
+            case CMPLEI -> Op.CMPLE;
+            case CMPGEI -> Op.CMPGE;
+            case CMPNEI -> Op.CMPNE;
+            case IADDI -> Op.IADD;
+            case ISUBI -> Op.ISUB;
+            case IMULI -> Op.IMUL;
+            case ICMPGTI -> Op.ICMPGT;
+            case ICMPLTI -> Op.ICMPLT;
+            case ICMPEQI -> Op.ICMPEQ;
+            case ICMPLEI -> Op.ICMPLE;
+            case ICMPGEI -> Op.ICMPGE;
+            case ICMPNEI -> Op.ICMPNE;
+            default -> op;
+        };
+    }
+
+    /** true se a3 é um literal (ADDI, SUBI, MULI, CMPxxI e as inteiras). */
+    public static boolean ehImediata(Op op) {
+        return formaBase(op) != op;
+    }
+
+    /** Operação equivalente com os operandos trocados (a OP b == b OP' a), ou null se não há. */
+    public static Op espelhada(Op op) {
+        return switch (op) {
+            case ADD, MUL, CMPEQ, CMPNE, IADD, IMUL, ICMPEQ, ICMPNE -> op;
+            case CMPLT -> Op.CMPGT;
+            case CMPGT -> Op.CMPLT;
+            case CMPLE -> Op.CMPGE;
+            case CMPGE -> Op.CMPLE;
+            case ICMPLT -> Op.ICMPGT;
+            case ICMPGT -> Op.ICMPLT;
+            case ICMPLE -> Op.ICMPGE;
+            case ICMPGE -> Op.ICMPLE;
+            default -> null;
+        };
+    }
+
+    // ---------- tipos ----------
+
+    /** Versão inteira de uma operação real (ADD -> IADD, CMPLTI -> ICMPLTI), ou null se não há. */
+    public static Op formaInteira(Op op) {
+        return switch (op) {
+            case ADD -> Op.IADD;
+            case ADDI -> Op.IADDI;
+            case SUB -> Op.ISUB;
+            case SUBI -> Op.ISUBI;
+            case MUL -> Op.IMUL;
+            case MULI -> Op.IMULI;
+            case DIV -> Op.IDIV;
+            case REM -> Op.IREM;
+            case CMPGT -> Op.ICMPGT;
+            case CMPLT -> Op.ICMPLT;
+            case CMPEQ -> Op.ICMPEQ;
+            case CMPLE -> Op.ICMPLE;
+            case CMPGE -> Op.ICMPGE;
+            case CMPNE -> Op.ICMPNE;
+            case CMPGTI -> Op.ICMPGTI;
+            case CMPLTI -> Op.ICMPLTI;
+            case CMPEQI -> Op.ICMPEQI;
+            case CMPLEI -> Op.ICMPLEI;
+            case CMPGEI -> Op.ICMPGEI;
+            case CMPNEI -> Op.ICMPNEI;
+            default -> null;
+        };
+    }
+
+    /** Versão real de uma operação inteira (IADD -> ADD); a própria op se não for inteira. */
+    public static Op formaReal(Op op) {
+        return switch (op) {
+            case IADD -> Op.ADD;
+            case IADDI -> Op.ADDI;
+            case ISUB -> Op.SUB;
+            case ISUBI -> Op.SUBI;
+            case IMUL -> Op.MUL;
+            case IMULI -> Op.MULI;
+            case IDIV -> Op.DIV;
+            case IREM -> Op.REM;
+            case ICMPGT -> Op.CMPGT;
+            case ICMPLT -> Op.CMPLT;
+            case ICMPEQ -> Op.CMPEQ;
+            case ICMPLE -> Op.CMPLE;
+            case ICMPGE -> Op.CMPGE;
+            case ICMPNE -> Op.CMPNE;
+            case ICMPGTI -> Op.CMPGTI;
+            case ICMPLTI -> Op.CMPLTI;
+            case ICMPEQI -> Op.CMPEQI;
+            case ICMPLEI -> Op.CMPLEI;
+            case ICMPGEI -> Op.CMPGEI;
+            case ICMPNEI -> Op.CMPNEI;
+            default -> op;
+        };
+    }
+
+    /** true para as operações sobre inteiros (IADD, IADDI, ICMPLT, ...); ITOR não entra. */
+    public static boolean ehInteira(Op op) {
+        return formaReal(op) != op;
+    }
+
+    /** Operação sem tipo e sem imediato (IADDI -> ADD, CMPLTI -> CMPLT): serve para classificar. */
+    public static Op familia(Op op) {
+        return formaBase(formaReal(op));
+    }
+
+    /** true se a operação é uma comparação, de qualquer tipo ou forma. */
+    public static boolean ehComparacao(Op op) {
+        return switch (familia(op)) {
+            case CMPGT, CMPLT, CMPEQ, CMPLE, CMPGE, CMPNE -> true;
+            default -> false;
+        };
+    }
+
+    /** true se o resultado da operação é inteiro: operações inteiras e comparações. */
+    public static boolean produzInteiro(Op op) {
+        return ehInteira(op) || ehComparacao(op);
+    }
+
+    /** Cópia escrevendo em outro destino (só faz sentido se definido() != null). */
+    public TacInstr comDestino(String dst) {
+        return new TacInstr(op, dst, a2, a3, label);
+    }
+
     @Override
     public String toString() {
         return switch (op) {
@@ -121,17 +341,16 @@ public class TacInstr {
             case JMP -> String.format("JMP %s", a1);
             case JMPFALSE -> String.format("JMPFALSE %s, %s", a1, a2);
             case JMPTRUE -> String.format("JMPTRUE %s, %s", a1, a2);
-            case LOADI, LOAD, STORE -> {
+            case LOADI, LOAD, STORE, ITOR -> {
                 // 2 operandos: OP a1, a2
                 yield String.format("%s %s, %s", op.name(), a1, a2);
             }
             case PRINT -> String.format("PRINT %s", a1);
-            case ADD, ADDI, SUB, SUBI, MUL, DIV, REM,
-                 CMPGT, CMPLT, CMPEQ, CMPLE, CMPGE, CMPNE -> {
+            case NOP -> "NOP";
+            default -> {
                 // 3 operandos: OP a1, a2, a3
                 yield String.format("%s %s, %s, %s", op.name(), a1, a2, a3);
             }
-            case NOP -> "NOP";
         };
     }
 }
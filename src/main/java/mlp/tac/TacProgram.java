@@ -0,0 +1,268 @@
+package mlp.tac;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Forma compacta do TAC, usada pelos motores de execução.
+ *
+ * Cada instrução ocupa LARGURA posições consecutivas de um único int[]:
+ *   [op, a, b, c]  com op = TacInstr.Op.ordinal()
+ *
+ * Os campos a/b/c seguem a mesma ordem de a1/a2/a3 do TacInstr, mas já
+ * resolvidos para inteiros:
+ *   LOADI dst, k        -> a = slot, b = índice no pool de constantes
+ *   ADDI/SUBI/MULI/CMPxxI dst, x, k (e as inteiras IADDI, ICMPxxI...)
+ *                       -> c = índice no pool de constantes
+ *   JMP L               -> a = índice da instrução alvo
+ *   JMPFALSE/JMPTRUE c,L-> a = slot da condição, b = índice da instrução alvo
+ *   demais              -> slots de variáveis/temporários
+ *
+ * LABELs não ocupam instrução: viram índices de salto. Um alvo igual a
+ * tamanho() significa "fim do programa". Os nomes de slots, rótulos e o
+ * texto original das constantes ficam guardados só para impressão, e
+ * posicao(i) leva o índice i da lista original à instrução compacta
+ * correspondente (um LABEL vai para a instrução que ele marca). Cada
+ * constante do pool tem o valor em double e, se o literal é inteiro, em long.
+ *
+ * Cada slot tem um tipo, que decide em que faixa do quadro ele vive no
+ * motor: INTEIRO (long) ou REAL (double). Ver tipos().
+ */
+public final class TacProgram {
+
+    public static final int LARGURA = 4;
+
+    /** Faixa do quadro em que um slot vive durante a execução. */
+    public enum Tipo { REAL, INTEIRO }
+
+    private static final TacInstr.Op[] OPS = TacInstr.Op.values();
+
+    private final int[] codigo;
+    private final double[] constantes;
+    private final long[] constantesInteiras;
+    private final String[] literais;                 // texto de cada constante
+    private final String[] nomes;                    // slot -> nome
+    private final Tipo[] tipos;                      // slot -> faixa
+    private final Map<Integer, List<String>> rotulos; // instrução -> rótulos
+    private final int[] posicoes;                    // índice na lista original -> instrução
+
+    private TacProgram(int[] codigo, double[] constantes, long[] constantesInteiras, String[] literais,
+                       String[] nomes, Tipo[] tipos, Map<Integer, List<String>> rotulos, int[] posicoes) {
+        this.codigo = codigo;
+        this.constantes = constantes;
+        this.constantesInteiras = constantesInteiras;
+        this.literais = literais;
+        this.nomes = nomes;
+        this.tipos = tipos;
+        this.rotulos = rotulos;
+        this.posicoes = posicoes;
+    }
+
+    // ---------------- montagem ----------------
+
+    /** Converte a lista de TacInstr (saída textual do gerador) para a forma compacta. */
+    public static TacProgram montar(List<TacInstr> instrucoes) {
+        // 1ª passada: posição de cada rótulo (LABELs não geram instrução)
+        Map<String, Integer> alvo = new HashMap<>();
+        Map<Integer, List<String>> rotulos = new LinkedHashMap<>();
+        int[] posicoes = new int[instrucoes.size()];
+        int n = 0;
+        for (int i = 0; i < posicoes.length; i++) {
+            TacInstr in = instrucoes.get(i);
+            posicoes[i] = n;
+            if (in.op == TacInstr.Op.LABEL) {
+                alvo.put(in.label, n);
+                rotulos.computeIfAbsent(n, k -> new ArrayList<>()).add(in.label);
+            } else {
+                n++;
+            }
+        }
+
+        // 2ª passada: codificação
+        int[] codigo = new int[n * LARGURA];
+        Map<String, Integer> slots = new LinkedHashMap<>();
+        Map<String, Integer> pool = new LinkedHashMap<>();
+        int pc = 0;
+        for (TacInstr in : instrucoes) {
+            if (in.op == TacInstr.Op.LABEL) continue;
+
+            int a = 0, b = 0, c = 0;
+            switch (in.op) {
+                case LOADI -> { a = slot(slots, in.a1); b = constante(pool, in.a2); }
+                case JMP -> a = destino(alvo, in.a1);
+                case JMPFALSE, JMPTRUE -> { a = slot(slots, in.a1); b = destino(alvo, in.a2); }
+                case PRINT -> a = slot(slots, in.a1);
+                case LOAD, STORE, ITOR -> { a = slot(slots, in.a1); b = slot(slots, in.a2); }
+                case NOP, LABEL -> {}
+                default -> {
+                    a = slot(slots, in.a1);
+                    b = slot(slots, in.a2);
+                    c = TacInstr.ehImediata(in.op) ? constante(pool, in.a3) : slot(slots, in.a3);
+                }
+            }
+
+            int base = pc * LARGURA;
+            codigo[base]     = in.op.ordinal();
+            codigo[base + 1] = a;
+            codigo[base + 2] = b;
+            codigo[base + 3] = c;
+            pc++;
+        }
+
+        double[] constantes = new double[pool.size()];
+        long[] inteiras = new long[pool.size()];
+        String[] literais = new String[pool.size()];
+        for (Map.Entry<String, Integer> e : pool.entrySet()) {
+            String lit = e.getKey();
+            constantes[e.getValue()] = Double.parseDouble(lit);
+            inteiras[e.getValue()] = Aritmetica.ehLiteralInteiro(lit) ? Long.parseLong(lit)
+                                                                      : (long) Double.parseDouble(lit);
+            literais[e.getValue()] = lit;
+        }
+        String[] nomes = slots.keySet().toArray(new String[0]);
+        Map<String, Tipo> porNome = tipos(instrucoes);
+        Tipo[] tipos = new Tipo[nomes.length];
+        for (int s = 0; s < nomes.length; s++) tipos[s] = porNome.getOrDefault(nomes[s], Tipo.REAL);
+
+        return new TacProgram(codigo, constantes, inteiras, literais, nomes, tipos, rotulos, posicoes);
+    }
+
+    private static int slot(Map<String, Integer> slots, String nome) {
+        return slots.computeIfAbsent(nome, k -> slots.size());
+    }
+
+    private static int constante(Map<String, Integer> pool, String literal) {
+        return pool.computeIfAbsent(literal.trim(), k -> pool.size());
+    }
+
+    private static int destino(Map<String, Integer> alvo, String rotulo) {
+        Integer i = alvo.get(rotulo);
+        if (i == null) throw new IllegalStateException("rótulo inexistente no TAC: " + rotulo);
+        return i;
+    }
+
+    // ---------------- tipos dos nomes ----------------
+
+    /**
+     * Tipo de cada nome do código, tirado das instruções que o escrevem e o
+     * leem: operações inteiras (IADD, ICMPLT...) leem e escrevem INTEIRO, as
+     * reais leem e escrevem REAL, comparações de qualquer tipo escrevem
+     * INTEIRO, ITOR lê INTEIRO e escreve REAL e LOADI tem o tipo do literal.
+     * Cópias (LOAD/STORE) igualam os dois lados; desvios e PRINT aceitam os
+     * dois tipos. Nomes sem nenhuma restrição ficam de fora (o motor os trata
+     * como REAL).
+     *
+     * O gerador e os passes mantêm um tipo por nome (a alocação de
+     * temporários só reaproveita nomes do mesmo tipo); se duas instruções
+     * exigirem tipos diferentes para o mesmo nome, é erro interno.
+     */
+    public static Map<String, Tipo> tipos(List<TacInstr> code) {
+        Map<String, Tipo> t = new HashMap<>();
+        List<TacInstr> copias = new ArrayList<>();
+        for (TacInstr in : code) {
+            switch (in.op) {
+                case LOADI -> fixar(t, in.a1, Aritmetica.ehLiteralInteiro(in.a2) ? Tipo.INTEIRO : Tipo.REAL);
+                case LOAD, STORE -> copias.add(in);
+                case ITOR -> {
+                    fixar(t, in.a1, Tipo.REAL);
+                    fixar(t, in.a2, Tipo.INTEIRO);
+                }
+                case JMP, JMPFALSE, JMPTRUE, PRINT, LABEL, NOP -> {}
+                default -> {
+                    Tipo operandos = TacInstr.ehInteira(in.op) ? Tipo.INTEIRO : Tipo.REAL;
+                    fixar(t, in.a1, TacInstr.produzInteiro(in.op) ? Tipo.INTEIRO : Tipo.REAL);
+                    for (String u : in.usados()) fixar(t, u, operandos);
+                }
+            }
+        }
+        boolean mudou = true;
+        while (mudou) {
+            mudou = false;
+            for (TacInstr in : copias) {
+                Tipo a = t.get(in.a1), b = t.get(in.a2);
+                if (a == b) continue;
+                if (a == null) { t.put(in.a1, b); mudou = true; }
+                else if (b == null) { t.put(in.a2, a); mudou = true; }
+                else throw new IllegalStateException("tipos diferentes na cópia: " + in);
+            }
+        }
+        return t;
+    }
+
+    private static void fixar(Map<String, Tipo> t, String nome, Tipo tipo) {
+        Tipo antes = t.putIfAbsent(nome, tipo);
+        if (antes != null && antes != tipo) {
+            throw new IllegalStateException("nome usado como " + antes + " e " + tipo + " no TAC: " + nome);
+        }
+    }
+
+    // ---------------- acesso ----------------
+
+    public int tamanho()            { return codigo.length / LARGURA; }
+    public int[] codigo()           { return codigo; }
+
+    public TacInstr.Op op(int pc)   { return OPS[codigo[pc * LARGURA]]; }
+    public int a(int pc)            { return codigo[pc * LARGURA + 1]; }
+    public int b(int pc)            { return codigo[pc * LARGURA + 2]; }
+    public int c(int pc)            { return codigo[pc * LARGURA + 3]; }
+
+    public int numConstantes()      { return constantes.length; }
+    public double constante(int k)  { return constantes[k]; }
+    /** Valor exato da constante k quando o literal é inteiro. */
+    public long constanteInteira(int k) { return constantesInteiras[k]; }
+    public String literal(int k)    { return literais[k]; }
+
+    public int numSlots()           { return nomes.length; }
+    public String nomeSlot(int s)   { return nomes[s]; }
+    public Tipo tipo(int s)         { return tipos[s]; }
+
+    /** Instrução compacta do i-ésimo TacInstr da lista montada. */
+    public int posicao(int i)       { return posicoes[i]; }
+
+    // ---------------- impressão ----------------
+
+    /** Reconstrói a lista de TacInstr (com LABELs), usada por toString(). */
+    public List<TacInstr> paraInstrucoes() {
+        List<TacInstr> out = new ArrayList<>();
+        int n = tamanho();
+        for (int pc = 0; pc <= n; pc++) {
+            List<String> labs = rotulos.get(pc);
+            if (labs != null) {
+                for (String l : labs) out.add(TacInstr.label(l));
+            }
+            if (pc == n) break;
+
+            int a = a(pc), b = b(pc), c = c(pc);
+            TacInstr.Op op = op(pc);
+            out.add(switch (op) {
+                case LOADI -> new TacInstr(op, nomes[a], literais[b], null, null);
+                case JMP -> new TacInstr(op, nomeRotulo(a), null, null, null);
+                case JMPFALSE, JMPTRUE -> new TacInstr(op, nomes[a], nomeRotulo(b), null, null);
+                case PRINT -> new TacInstr(op, nomes[a], null, null, null);
+                case LOAD, STORE, ITOR -> new TacInstr(op, nomes[a], nomes[b], null, null);
+                case NOP, LABEL -> new TacInstr(op, null, null, null, null);
+                default -> new TacInstr(op, nomes[a], nomes[b],
+                                        TacInstr.ehImediata(op) ? literais[c] : nomes[c], null);
+            });
+        }
+        return out;
+    }
+
+    /** Nome do rótulo da instrução pc (ou "@pc" se ela não tem rótulo). */
+    public String nomeRotulo(int pc) {
+        List<String> labs = rotulos.get(pc);
+        return (labs == null || labs.isEmpty()) ? ("@" + pc) : labs.get(0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (TacInstr in : paraInstrucoes()) {
+            sb.append(in).append('\n');
+        }
+        return sb.toString();
+    }
+}
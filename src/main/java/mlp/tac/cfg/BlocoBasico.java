@@ -0,0 +1,47 @@
+package mlp.tac.cfg;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mlp.tac.TacInstr;
+
+/**
+ * Bloco básico: sequência de instruções sem desvio no meio. Começa num LABEL
+ * (ou no início do programa, ou logo após um desvio) e termina num desvio
+ * ou antes do próximo LABEL.
+ */
+public class BlocoBasico {
+
+    public final int id;                               // posição no layout
+    public final List<TacInstr> instrucoes = new ArrayList<>();
+    public final List<BlocoBasico> sucessores = new ArrayList<>();
+    public final List<BlocoBasico> predecessores = new ArrayList<>();
+
+    BlocoBasico(int id) {
+        this.id = id;
+    }
+
+    /** Nome do LABEL que abre o bloco, ou null. */
+    public String rotulo() {
+        if (instrucoes.isEmpty()) return null;
+        TacInstr p = instrucoes.get(0);
+        return (p.op == TacInstr.Op.LABEL) ? p.label : null;
+    }
+
+    /** Última instrução (o desvio, se houver), ou null se o bloco está vazio. */
+    public TacInstr ultima() {
+        return instrucoes.isEmpty() ? null : instrucoes.get(instrucoes.size() - 1);
+    }
+
+    /** true se o bloco termina em JMP (não cai no bloco seguinte). */
+    public boolean terminaEmSaltoIncondicional() {
+        TacInstr u = ultima();
+        return u != null && u.op == TacInstr.Op.JMP;
+    }
+
+    @Override
+    public String toString() {
+        String r = rotulo();
+        return "B" + id + (r != null ? "(" + r + ")" : "");
+    }
+}
@@ -0,0 +1,56 @@
+package mlp.tac.cfg;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import mlp.tac.TacInstr;
+
+/**
+ * Definições que alcançam cada ponto (para frente, união). As definições
+ * são as próprias instruções (comparadas por identidade).
+ */
+public class DefinicoesAlcancantes implements ProblemaFluxo<Set<TacInstr>> {
+
+    private final ResultadoFluxo<Set<TacInstr>> res;
+
+    public DefinicoesAlcancantes(GrafoFluxo g) {
+        this.res = SolucionadorFluxo.resolver(g, this);
+    }
+
+    @Override public Direcao direcao()        { return Direcao.FRENTE; }
+    @Override public Set<TacInstr> contorno()  { return Collections.emptySet(); }
+    @Override public Set<TacInstr> inicial()   { return Collections.emptySet(); }
+
+    @Override
+    public Set<TacInstr> encontro(Set<TacInstr> a, Set<TacInstr> b) {
+        Set<TacInstr> r = new HashSet<>(a);
+        r.addAll(b);
+        return r;
+    }
+
+    @Override
+    public Set<TacInstr> transferir(BlocoBasico b, Set<TacInstr> entrada) {
+        Set<TacInstr> defs = new HashSet<>(entrada);
+        for (TacInstr in : b.instrucoes) passo(in, defs);
+        return defs;
+    }
+
+    private static void passo(TacInstr in, Set<TacInstr> defs) {
+        String d = in.definido();
+        if (d == null) return;
+        defs.removeIf(x -> d.equals(x.definido()));
+        defs.add(in);
+    }
+
+    public Set<TacInstr> naEntrada(BlocoBasico b) { return res.entrada(b); }
+    public Set<TacInstr> naSaida(BlocoBasico b)   { return res.saida(b); }
+
+    /** Definições de 'nome' que alcançam a instrução de índice i do bloco b. */
+    public Set<TacInstr> alcancam(BlocoBasico b, int i, String nome) {
+        Set<TacInstr> defs = new HashSet<>(res.entrada(b));
+        for (int k = 0; k < i; k++) passo(b.instrucoes.get(k), defs);
+        defs.removeIf(x -> !nome.equals(x.definido()));
+        return defs;
+    }
+}
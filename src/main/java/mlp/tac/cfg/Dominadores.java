@@ -0,0 +1,114 @@
+package mlp.tac.cfg;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Árvore de dominadores (algoritmo iterativo de Cooper, Harvey e Kennedy)
+ * e fronteiras de dominância. Blocos inalcançáveis não têm dominador
+ * imediato (idom == null) e ficam fora da árvore.
+ */
+public class Dominadores {
+
+    private final GrafoFluxo g;
+    private final BlocoBasico[] idom;
+    private final int[] ordem;                   // posição na pós-ordem reversa
+    private final List<List<BlocoBasico>> filhos = new ArrayList<>();
+    private final List<Set<BlocoBasico>> fronteira = new ArrayList<>();
+
+    public Dominadores(GrafoFluxo g) {
+        this.g = g;
+        int n = g.tamanho();
+        idom = new BlocoBasico[n];
+        ordem = new int[n];
+        for (int i = 0; i < n; i++) {
+            ordem[i] = -1;
+            filhos.add(new ArrayList<>());
+            fronteira.add(new HashSet<>());
+        }
+        if (n == 0) return;
+
+        List<BlocoBasico> rpo = g.posOrdemReversa();
+        for (int i = 0; i < rpo.size(); i++) ordem[rpo.get(i).id] = i;
+
+        BlocoBasico entrada = g.entrada();
+        idom[entrada.id] = entrada;
+        boolean mudou = true;
+        while (mudou) {
+            mudou = false;
+            for (BlocoBasico b : rpo) {
+                if (b == entrada) continue;
+                BlocoBasico novo = null;
+                for (BlocoBasico p : b.predecessores) {
+                    if (idom[p.id] == null) continue;     // ainda não processado / inalcançável
+                    novo = (novo == null) ? p : intersectar(p, novo);
+                }
+                if (novo != idom[b.id]) {
+                    idom[b.id] = novo;
+                    mudou = true;
+                }
+            }
+        }
+
+        for (BlocoBasico b : rpo) {
+            if (b != entrada) filhos.get(idom[b.id].id).add(b);
+        }
+
+        // fronteiras de dominância (Cooper et al.): só nós de junção contribuem
+        for (BlocoBasico b : rpo) {
+            if (b.predecessores.size() < 2) continue;
+            for (BlocoBasico p : b.predecessores) {
+                if (idom[p.id] == null) continue;
+                BlocoBasico corredor = p;
+                while (corredor != idom[b.id]) {
+                    fronteira.get(corredor.id).add(b);
+                    corredor = idom[corredor.id];
+                }
+            }
+        }
+    }
+
+    private BlocoBasico intersectar(BlocoBasico a, BlocoBasico b) {
+        while (a != b) {
+            while (ordem[a.id] > ordem[b.id]) a = idom[a.id];
+            while (ordem[b.id] > ordem[a.id]) b = idom[b.id];
+        }
+        return a;
+    }
+
+    /** Dominador imediato (a entrada domina a si mesma); null se inalcançável. */
+    public BlocoBasico idom(BlocoBasico b) {
+        return idom[b.id];
+    }
+
+    public boolean alcancavel(BlocoBasico b) {
+        return idom[b.id] != null;
+    }
+
+    /** true se a domina b (todo caminho da entrada até b passa por a). */
+    public boolean domina(BlocoBasico a, BlocoBasico b) {
+        if (idom[b.id] == null || idom[a.id] == null) return false;
+        BlocoBasico x = b;
+        while (true) {
+            if (x == a) return true;
+            BlocoBasico p = idom[x.id];
+            if (p == x) return false;              // chegou na entrada
+            x = p;
+        }
+    }
+
+    /** Filhos de b na árvore de dominadores. */
+    public List<BlocoBasico> filhos(BlocoBasico b) {
+        return filhos.get(b.id);
+    }
+
+    public Set<BlocoBasico> fronteira(BlocoBasico b) {
+        return fronteira.get(b.id);
+    }
+
+    public GrafoFluxo grafo() {
+        return g;
+    }
+}
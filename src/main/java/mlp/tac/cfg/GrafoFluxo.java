@@ -0,0 +1,124 @@
+package mlp.tac.cfg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import mlp.tac.TacInstr;
+import mlp.tac.TacInstr.Op;
+
+/**
+ * Grafo de fluxo de controle do TAC.
+ *
+ * Os blocos ficam na ordem do código (layout): o "cair para o próximo" de um
+ * bloco é sempre o bloco de id + 1. linearizar() devolve a lista de TacInstr
+ * na mesma ordem, então um passe pode mexer nas instruções dos blocos e
+ * reconstruir o código sem perder os rótulos.
+ */
+public class GrafoFluxo {
+
+    private final List<BlocoBasico> blocos = new ArrayList<>();
+    private final Map<String, BlocoBasico> porRotulo = new HashMap<>();
+
+    private GrafoFluxo() {}
+
+    public static GrafoFluxo construir(List<TacInstr> code) {
+        GrafoFluxo g = new GrafoFluxo();
+
+        BlocoBasico atual = null;
+        for (TacInstr in : code) {
+            if (atual == null || in.op == Op.LABEL) {
+                atual = new BlocoBasico(g.blocos.size());
+                g.blocos.add(atual);
+            }
+            atual.instrucoes.add(in);
+            if (in.op == Op.LABEL) g.porRotulo.put(in.label, atual);
+            if (ehDesvio(in.op)) atual = null;
+        }
+
+        for (BlocoBasico b : g.blocos) {
+            TacInstr ult = b.ultima();
+            BlocoBasico prox = (b.id + 1 < g.blocos.size()) ? g.blocos.get(b.id + 1) : null;
+            switch (ult.op) {
+                case JMP -> ligar(b, g.porRotulo.get(ult.a1));
+                case JMPFALSE, JMPTRUE -> {
+                    ligar(b, g.porRotulo.get(ult.a2));
+                    ligar(b, prox);
+                }
+                default -> ligar(b, prox);
+            }
+        }
+        return g;
+    }
+
+    private static void ligar(BlocoBasico de, BlocoBasico para) {
+        if (para == null || de.sucessores.contains(para)) return;
+        de.sucessores.add(para);
+        para.predecessores.add(de);
+    }
+
+    public static boolean ehDesvio(Op op) {
+        return op == Op.JMP || op == Op.JMPFALSE || op == Op.JMPTRUE;
+    }
+
+    // ---------------- acesso ----------------
+
+    public List<BlocoBasico> blocos()          { return Collections.unmodifiableList(blocos); }
+    public BlocoBasico entrada()               { return blocos.isEmpty() ? null : blocos.get(0); }
+    public BlocoBasico blocoDoRotulo(String r) { return porRotulo.get(r); }
+    public int tamanho()                       { return blocos.size(); }
+
+    /** Blocos alcançáveis a partir da entrada, em pós-ordem reversa. */
+    public List<BlocoBasico> posOrdemReversa() {
+        List<BlocoBasico> pos = new ArrayList<>();
+        if (blocos.isEmpty()) return pos;
+
+        // DFS iterativa (programas com muitos laços não estouram a pilha)
+        Set<BlocoBasico> visitado = new HashSet<>();
+        List<BlocoBasico> pilha = new ArrayList<>();
+        List<Integer> proxFilho = new ArrayList<>();
+        pilha.add(entrada());
+        proxFilho.add(0);
+        visitado.add(entrada());
+        while (!pilha.isEmpty()) {
+            int topo = pilha.size() - 1;
+            BlocoBasico b = pilha.get(topo);
+            int i = proxFilho.get(topo);
+            if (i < b.sucessores.size()) {
+                proxFilho.set(topo, i + 1);
+                BlocoBasico s = b.sucessores.get(i);
+                if (visitado.add(s)) {
+                    pilha.add(s);
+                    proxFilho.add(0);
+                }
+            } else {
+                pos.add(b);
+                pilha.remove(topo);
+                proxFilho.remove(topo);
+            }
+        }
+        Collections.reverse(pos);
+        return pos;
+    }
+
+    /** Código de volta em forma de lista, na ordem dos blocos. */
+    public List<TacInstr> linearizar() {
+        List<TacInstr> out = new ArrayList<>();
+        for (BlocoBasico b : blocos) out.addAll(b.instrucoes);
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (BlocoBasico b : blocos) {
+            sb.append(b).append(" -> ").append(b.sucessores).append('\n');
+            for (TacInstr in : b.instrucoes) sb.append("    ").append(in).append('\n');
+        }
+        return sb.toString();
+    }
+}
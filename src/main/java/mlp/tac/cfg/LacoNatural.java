@@ -0,0 +1,64 @@
+package mlp.tac.cfg;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Laço natural: cabeçalho + todos os blocos que alcançam alguma aresta de
+ * retorno (fonte -> cabeçalho) sem passar pelo cabeçalho.
+ */
+public class LacoNatural {
+
+    public final BlocoBasico cabecalho;
+    public final Set<BlocoBasico> corpo = new LinkedHashSet<>();   // inclui o cabeçalho
+    public final List<BlocoBasico> fontesRetorno = new ArrayList<>();
+
+    LacoNatural pai;                                               // laço que o envolve
+    final List<LacoNatural> internos = new ArrayList<>();
+
+    LacoNatural(BlocoBasico cabecalho) {
+        this.cabecalho = cabecalho;
+        corpo.add(cabecalho);
+    }
+
+    public boolean contem(BlocoBasico b) {
+        return corpo.contains(b);
+    }
+
+    public LacoNatural pai()                { return pai; }
+    public List<LacoNatural> internos()     { return internos; }
+
+    /** 1 para laços mais externos. */
+    public int profundidade() {
+        int d = 1;
+        for (LacoNatural p = pai; p != null; p = p.pai) d++;
+        return d;
+    }
+
+    /** Predecessores do cabeçalho que estão fora do laço (arestas de entrada). */
+    public List<BlocoBasico> entradas() {
+        List<BlocoBasico> r = new ArrayList<>();
+        for (BlocoBasico p : cabecalho.predecessores) {
+            if (!corpo.contains(p)) r.add(p);
+        }
+        return r;
+    }
+
+    /** Blocos de fora do laço alcançados a partir dele (destinos de saída). */
+    public Set<BlocoBasico> saidas() {
+        Set<BlocoBasico> r = new LinkedHashSet<>();
+        for (BlocoBasico b : corpo) {
+            for (BlocoBasico s : b.sucessores) {
+                if (!corpo.contains(s)) r.add(s);
+            }
+        }
+        return r;
+    }
+
+    @Override
+    public String toString() {
+        return "Laco" + cabecalho + corpo;
+    }
+}
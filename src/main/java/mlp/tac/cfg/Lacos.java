@@ -0,0 +1,70 @@
+package mlp.tac.cfg;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Detecta os laços naturais a partir das arestas de retorno (b -> h com h
+ * dominando b). Arestas de retorno para o mesmo cabeçalho formam um único
+ * laço. Também monta o aninhamento (pai/internos).
+ */
+public class Lacos {
+
+    private final List<LacoNatural> lacos = new ArrayList<>();
+
+    public Lacos(GrafoFluxo g, Dominadores dom) {
+        Map<BlocoBasico, LacoNatural> porCabecalho = new LinkedHashMap<>();
+        for (BlocoBasico b : g.blocos()) {
+            if (!dom.alcancavel(b)) continue;
+            for (BlocoBasico h : b.sucessores) {
+                if (!dom.domina(h, b)) continue;
+
+                LacoNatural l = porCabecalho.computeIfAbsent(h, LacoNatural::new);
+                l.fontesRetorno.add(b);
+
+                // sobe pelos predecessores a partir da fonte até o cabeçalho
+                Deque<BlocoBasico> pilha = new ArrayDeque<>();
+                if (l.corpo.add(b)) pilha.push(b);
+                while (!pilha.isEmpty()) {
+                    BlocoBasico x = pilha.pop();
+                    for (BlocoBasico p : x.predecessores) {
+                        if (dom.alcancavel(p) && l.corpo.add(p)) pilha.push(p);
+                    }
+                }
+            }
+        }
+        lacos.addAll(porCabecalho.values());
+
+        // aninhamento: o pai é o menor laço que contém o cabeçalho
+        lacos.sort(Comparator.comparingInt(l -> l.corpo.size()));
+        for (int i = 0; i < lacos.size(); i++) {
+            LacoNatural l = lacos.get(i);
+            for (int j = i + 1; j < lacos.size(); j++) {
+                LacoNatural m = lacos.get(j);
+                if (m != l && m.contem(l.cabecalho)) {
+                    l.pai = m;
+                    m.internos.add(l);
+                    break;
+                }
+            }
+        }
+    }
+
+    /** Todos os laços, do menor (mais interno) para o maior. */
+    public List<LacoNatural> todos() {
+        return lacos;
+    }
+
+    /** Laço mais interno que contém b, ou null. */
+    public LacoNatural lacoDe(BlocoBasico b) {
+        for (LacoNatural l : lacos) {
+            if (l.contem(b)) return l;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,25 @@
+package mlp.tac.cfg;
+
+/**
+ * Descrição de um problema de fluxo de dados sobre o GrafoFluxo, resolvido
+ * pelo {@link SolucionadorFluxo}. Os valores devem ser tratados como
+ * imutáveis: transferir/encontro devolvem objetos novos.
+ */
+public interface ProblemaFluxo<T> {
+
+    enum Direcao { FRENTE, TRAS }
+
+    Direcao direcao();
+
+    /** Valor no contorno: entrada do programa (FRENTE) ou saída (TRAS). */
+    T contorno();
+
+    /** Valor inicial dos demais pontos (topo do reticulado). */
+    T inicial();
+
+    /** Junção de valores vindos de arestas diferentes. */
+    T encontro(T a, T b);
+
+    /** Efeito do bloco: entrada -> saída (FRENTE) ou saída -> entrada (TRAS). */
+    T transferir(BlocoBasico b, T valor);
+}
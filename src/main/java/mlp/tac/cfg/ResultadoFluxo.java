@@ -0,0 +1,18 @@
+package mlp.tac.cfg;
+
+import java.util.List;
+
+/** Valores na entrada e na saída de cada bloco após o ponto fixo. */
+public class ResultadoFluxo<T> {
+
+    private final List<T> entrada;
+    private final List<T> saida;
+
+    ResultadoFluxo(List<T> entrada, List<T> saida) {
+        this.entrada = entrada;
+        this.saida = saida;
+    }
+
+    public T entrada(BlocoBasico b) { return entrada.get(b.id); }
+    public T saida(BlocoBasico b)   { return saida.get(b.id); }
+}
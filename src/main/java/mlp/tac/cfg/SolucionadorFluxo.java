@@ -0,0 +1,77 @@
+package mlp.tac.cfg;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Solucionador genérico por lista de trabalho. Problemas para frente são
+ * semeados em pós-ordem reversa e para trás na ordem inversa, o que costuma
+ * convergir em poucas voltas.
+ */
+public final class SolucionadorFluxo {
+
+    private SolucionadorFluxo() {}
+
+    public static <T> ResultadoFluxo<T> resolver(GrafoFluxo g, ProblemaFluxo<T> p) {
+        int n = g.tamanho();
+        List<T> entrada = new ArrayList<>(n);
+        List<T> saida = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            entrada.add(p.inicial());
+            saida.add(p.inicial());
+        }
+        if (n == 0) return new ResultadoFluxo<>(entrada, saida);
+
+        boolean frente = (p.direcao() == ProblemaFluxo.Direcao.FRENTE);
+
+        // inclui também blocos inalcançáveis, para que todos recebam valor
+        List<BlocoBasico> ordem = new ArrayList<>(g.posOrdemReversa());
+        boolean[] listado = new boolean[n];
+        for (BlocoBasico b : ordem) listado[b.id] = true;
+        for (BlocoBasico b : g.blocos()) {
+            if (!listado[b.id]) ordem.add(b);
+        }
+        if (!frente) Collections.reverse(ordem);
+
+        Deque<BlocoBasico> trabalho = new ArrayDeque<>(ordem);
+        boolean[] naFila = new boolean[n];
+        for (BlocoBasico b : ordem) naFila[b.id] = true;
+
+        while (!trabalho.isEmpty()) {
+            BlocoBasico b = trabalho.poll();
+            naFila[b.id] = false;
+
+            List<BlocoBasico> vizinhos = frente ? b.predecessores : b.sucessores;
+            boolean contorno = frente ? (b == g.entrada()) : b.sucessores.isEmpty();
+
+            T junta = contorno ? p.contorno() : null;
+            for (BlocoBasico v : vizinhos) {
+                T x = frente ? saida.get(v.id) : entrada.get(v.id);
+                junta = (junta == null) ? x : p.encontro(junta, x);
+            }
+            if (junta == null) junta = p.inicial();
+
+            T res = p.transferir(b, junta);
+            if (frente) {
+                entrada.set(b.id, junta);
+                if (res.equals(saida.get(b.id))) continue;
+                saida.set(b.id, res);
+            } else {
+                saida.set(b.id, junta);
+                if (res.equals(entrada.get(b.id))) continue;
+                entrada.set(b.id, res);
+            }
+
+            for (BlocoBasico v : (frente ? b.sucessores : b.predecessores)) {
+                if (!naFila[v.id]) {
+                    naFila[v.id] = true;
+                    trabalho.add(v);
+                }
+            }
+        }
+        return new ResultadoFluxo<>(entrada, saida);
+    }
+}
@@ -0,0 +1,64 @@
+package mlp.tac.cfg;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import mlp.tac.TacInstr;
+
+/**
+ * Análise de vivacidade (para trás, união): um nome está vivo num ponto se
+ * algum caminho a partir dali o lê antes de redefini-lo. Nada está vivo no
+ * fim do programa.
+ */
+public class Vivacidade implements ProblemaFluxo<Set<String>> {
+
+    private final ResultadoFluxo<Set<String>> res;
+
+    public Vivacidade(GrafoFluxo g) {
+        this.res = SolucionadorFluxo.resolver(g, this);
+    }
+
+    @Override public Direcao direcao()     { return Direcao.TRAS; }
+    @Override public Set<String> contorno() { return Collections.emptySet(); }
+    @Override public Set<String> inicial()  { return Collections.emptySet(); }
+
+    @Override
+    public Set<String> encontro(Set<String> a, Set<String> b) {
+        Set<String> r = new HashSet<>(a);
+        r.addAll(b);
+        return r;
+    }
+
+    @Override
+    public Set<String> transferir(BlocoBasico b, Set<String> saida) {
+        Set<String> vivas = new HashSet<>(saida);
+        for (int i = b.instrucoes.size() - 1; i >= 0; i--) {
+            passo(b.instrucoes.get(i), vivas);
+        }
+        return vivas;
+    }
+
+    private static void passo(TacInstr in, Set<String> vivas) {
+        String d = in.definido();
+        if (d != null) vivas.remove(d);
+        vivas.addAll(in.usados());
+    }
+
+    public Set<String> vivasNaEntrada(BlocoBasico b) { return res.entrada(b); }
+    public Set<String> vivasNaSaida(BlocoBasico b)   { return res.saida(b); }
+
+    /** Para cada instrução do bloco, os nomes vivos logo depois dela. */
+    public List<Set<String>> vivasDepoisDeCada(BlocoBasico b) {
+        int n = b.instrucoes.size();
+        List<Set<String>> r = new ArrayList<>(Collections.nCopies(n, null));
+        Set<String> vivas = new HashSet<>(res.saida(b));
+        for (int i = n - 1; i >= 0; i--) {
+            r.set(i, new HashSet<>(vivas));
+            passo(b.instrucoes.get(i), vivas);
+        }
+        return r;
+    }
+}
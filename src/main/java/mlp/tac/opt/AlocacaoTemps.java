@@ -0,0 +1,157 @@
+package mlp.tac.opt;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+
+import mlp.tac.TacInstr;
+import mlp.tac.TacProgram;
+import mlp.tac.cfg.BlocoBasico;
+import mlp.tac.cfg.GrafoFluxo;
+import mlp.tac.cfg.Vivacidade;
+
+/**
+ * Alocação de temporários por varredura linear (Poletto e Sarkar).
+ *
+ * Cada temporário ganha um intervalo [primeira posição, última posição] na
+ * ordem linear do código, estendido até o início/fim de todo bloco em que
+ * está vivo na entrada/saída (o que cobre os laços). Os intervalos são
+ * percorridos pelo início e cada um recebe um slot livre; o slot volta para
+ * a lista de livres quando o intervalo termina. Os slots se chamam de novo
+ * t0, t1, ... (pulando nomes de variáveis), então o TAC continua legível e o
+ * interpretador guarda só getNumSlots() temporários em vez de um por
+ * subexpressão.
+ *
+ * Posições: a leitura da instrução i fica em 2i e a escrita em 2i+1, de modo
+ * que em "ADD t5, t3, t4" o t5 pode reaproveitar o slot de t3 se aquela for
+ * a última leitura de t3.
+ *
+ * Um slot só é reaproveitado por temporários do mesmo tipo (ver
+ * TacProgram.tipos): há uma lista de livres para inteiros e outra para
+ * reais, já que o motor guarda cada nome numa faixa só do quadro.
+ *
+ * Deve ser o último passe: depois dele um mesmo nome representa valores
+ * diferentes em trechos diferentes do código.
+ */
+public class AlocacaoTemps implements TacPass {
+
+    private final Set<String> variaveis;
+    private int numSlots;
+
+    /** @param variaveis nomes declarados no programa (nunca são realocados) */
+    public AlocacaoTemps(Set<String> variaveis) {
+        this.variaveis = variaveis;
+    }
+
+    /** Quantidade de slots usados na última aplicação. */
+    public int getNumSlots() {
+        return numSlots;
+    }
+
+    private static final class Intervalo {
+        final String temp;
+        int inicio = Integer.MAX_VALUE, fim = Integer.MIN_VALUE;
+        int slot = -1;
+        TacProgram.Tipo tipo;
+
+        Intervalo(String temp) { this.temp = temp; }
+
+        void cobrir(int p) {
+            inicio = Math.min(inicio, p);
+            fim = Math.max(fim, p);
+        }
+    }
+
+    @Override
+    public String nome() {
+        return "alocacao";
+    }
+
+    @Override
+    public List<TacInstr> aplicar(List<TacInstr> code) {
+        numSlots = 0;
+        if (code.isEmpty()) return code;
+
+        Map<String, Intervalo> intervalos = calcularIntervalos(code);
+        Map<String, TacProgram.Tipo> tipos = TacProgram.tipos(code);
+        for (Intervalo iv : intervalos.values()) iv.tipo = tipos.getOrDefault(iv.temp, TacProgram.Tipo.REAL);
+
+        // ---------- varredura ----------
+        List<Intervalo> porInicio = new ArrayList<>(intervalos.values());
+        porInicio.sort(Comparator.comparingInt(iv -> iv.inicio));
+        PriorityQueue<Intervalo> ativos = new PriorityQueue<>(Comparator.comparingInt(iv -> iv.fim));
+        Map<TacProgram.Tipo, TreeSet<Integer>> livres = new EnumMap<>(TacProgram.Tipo.class);
+        for (TacProgram.Tipo t : TacProgram.Tipo.values()) livres.put(t, new TreeSet<>());   // menor slot livre primeiro
+
+        for (Intervalo iv : porInicio) {
+            while (!ativos.isEmpty() && ativos.peek().fim < iv.inicio) {
+                Intervalo fim = ativos.poll();
+                livres.get(fim.tipo).add(fim.slot);
+            }
+            TreeSet<Integer> doTipo = livres.get(iv.tipo);
+            iv.slot = doTipo.isEmpty() ? numSlots++ : doTipo.pollFirst();
+            ativos.add(iv);
+        }
+
+        // ---------- reescrita ----------
+        List<String> nomeDoSlot = new ArrayList<>();
+        int k = 0;
+        for (int s = 0; s < numSlots; s++) {
+            String nome;
+            do { nome = "t" + (k++); } while (variaveis.contains(nome));
+            nomeDoSlot.add(nome);
+        }
+        Map<String, String> novo = new HashMap<>();
+        for (Intervalo iv : intervalos.values()) novo.put(iv.temp, nomeDoSlot.get(iv.slot));
+
+        List<TacInstr> out = new ArrayList<>(code.size());
+        for (TacInstr in : code) {
+            TacInstr r = in.trocarUsos(u -> novo.getOrDefault(u, u));
+            String d = in.definido();
+            if (d != null && novo.containsKey(d)) r = r.comDestino(novo.get(d));
+            out.add(r);
+        }
+        return out;
+    }
+
+    private Map<String, Intervalo> calcularIntervalos(List<TacInstr> code) {
+        Map<String, Intervalo> intervalos = new LinkedHashMap<>();
+        GrafoFluxo g = GrafoFluxo.construir(code);
+        Vivacidade viv = new Vivacidade(g);
+
+        int pos = 0;                                   // índice da 1ª instrução do bloco
+        for (BlocoBasico b : g.blocos()) {
+            int ini = pos, fim = pos + b.instrucoes.size() - 1;
+            for (String t : viv.vivasNaEntrada(b)) {
+                if (ehTemp(t)) intervalo(intervalos, t).cobrir(2 * ini);
+            }
+            for (TacInstr in : b.instrucoes) {
+                for (String u : in.usados()) {
+                    if (ehTemp(u)) intervalo(intervalos, u).cobrir(2 * pos);
+                }
+                String d = in.definido();
+                if (d != null && ehTemp(d)) intervalo(intervalos, d).cobrir(2 * pos + 1);
+                pos++;
+            }
+            for (String t : viv.vivasNaSaida(b)) {
+                if (ehTemp(t)) intervalo(intervalos, t).cobrir(2 * fim + 1);
+            }
+        }
+        return intervalos;
+    }
+
+    private static Intervalo intervalo(Map<String, Intervalo> m, String t) {
+        return m.computeIfAbsent(t, Intervalo::new);
+    }
+
+    private boolean ehTemp(String nome) {
+        return !variaveis.contains(nome);
+    }
+}
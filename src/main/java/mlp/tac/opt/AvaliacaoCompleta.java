@@ -0,0 +1,75 @@
+package mlp.tac.opt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mlp.tac.Aritmetica;
+import mlp.tac.InterpretadorTAC;
+import mlp.tac.TacInstr;
+
+/**
+ * Avaliação do programa inteiro em tempo de compilação.
+ *
+ * MLP não tem comando de leitura: o programa sempre escreve a mesma coisa.
+ * Este passe executa o TAC no próprio interpretador, com um limite de
+ * instruções; se o programa terminar dentro dele, o código é trocado pela
+ * sequência de valores escritos ("LOADI t, v" e "PRINT t" para cada um, com
+ * t0 para os inteiros e t1 para os reais, já que cada nome tem um só tipo).
+ *
+ * Se o limite acabar, se o programa escrever mais que MAX_SAIDAS valores
+ * (o código residual ficaria grande demais) ou se a execução falhar, o
+ * código segue sem mudança e a execução fica para a hora de rodar.
+ */
+public class AvaliacaoCompleta implements TacPass {
+
+    public static final long LIMITE_PADRAO = 1_000_000;
+    public static final int MAX_SAIDAS = 10_000;
+
+    private final long limite;
+    private boolean aplicado;
+
+    /** @param limite máximo de instruções executadas durante a compilação */
+    public AvaliacaoCompleta(long limite) {
+        this.limite = limite;
+    }
+
+    public AvaliacaoCompleta() {
+        this(LIMITE_PADRAO);
+    }
+
+    /** true se a última aplicação trocou o programa pela saída pré-calculada. */
+    public boolean foiAplicado() {
+        return aplicado;
+    }
+
+    @Override
+    public String nome() {
+        return "avaliacao";
+    }
+
+    @Override
+    public List<TacInstr> aplicar(List<TacInstr> code) {
+        aplicado = false;
+        List<String> valores = new ArrayList<>();       // literal de cada valor, com o tipo dele
+        InterpretadorTAC.Saida saida = new InterpretadorTAC.Saida() {
+            @Override public void inteiro(long v) { valores.add(Long.toString(v)); }
+            @Override public void real(double v)  { valores.add(Aritmetica.literal(v, false)); }
+        };
+        boolean terminou;
+        try {
+            terminou = new InterpretadorTAC(saida).executar(code, limite);
+        } catch (RuntimeException e) {
+            return code;                                // erro de execução: fica para a hora de rodar
+        }
+        if (!terminou || valores.size() > MAX_SAIDAS) return code;
+
+        List<TacInstr> out = new ArrayList<>(2 * valores.size());
+        for (String v : valores) {
+            String t = Aritmetica.ehLiteralInteiro(v) ? "t0" : "t1";
+            out.add(TacInstr.loadi(t, v));
+            out.add(TacInstr.print(t));
+        }
+        aplicado = true;
+        return out;
+    }
+}
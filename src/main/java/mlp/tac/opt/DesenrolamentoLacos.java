@@ -0,0 +1,263 @@
+package mlp.tac.opt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import mlp.tac.Aritmetica;
+import mlp.tac.TacInstr;
+import mlp.tac.TacInstr.Op;
+import mlp.tac.cfg.BlocoBasico;
+import mlp.tac.cfg.DefinicoesAlcancantes;
+import mlp.tac.cfg.Dominadores;
+import mlp.tac.cfg.GrafoFluxo;
+import mlp.tac.cfg.LacoNatural;
+import mlp.tac.cfg.Lacos;
+import mlp.tac.cfg.Vivacidade;
+
+/**
+ * Desenrolamento de laços com número de voltas conhecido.
+ *
+ * Candidato: laço "enquanto" no formato do gerador, com os blocos contíguos
+ * no layout e
+ *   - cabeçalho só com "CMPxx t, i, K" (ou ICMPxx) e "JMPFALSE t, Lsaida", onde K é
+ *     imediato ou nome constante e t não é lido depois do laço;
+ *   - uma única aresta de volta, vinda de um "JMP cabeçalho";
+ *   - nenhuma saída além do JMPFALSE do cabeçalho;
+ *   - i com uma única definição no laço, "ADDI/SUBI i, i, c" (ou IADDI/ISUBI), num bloco
+ *     que domina a volta (roda exatamente uma vez por volta);
+ *   - um único LOADI de i alcançando o cabeçalho de fora do laço.
+ *
+ * O número de voltas N é obtido simulando i com a mesma aritmética do
+ * interpretador (Aritmetica), então vale também para passos e limites reais;
+ * com i inteiro, a simulação desiste se i sair da faixa exata do double.
+ *
+ * Com N pequeno (até LIMITE_COMPLETO voltas e MAX_INSTRUCOES no total) o
+ * laço some: ficam N cópias do corpo seguidas de um salto para a saída.
+ * Senão, com fator k, o laço passa a testar a condição uma vez a cada k
+ * voltas: as N % k voltas que sobram rodam antes, sem teste, e o corpo do
+ * novo laço é o original repetido k vezes. Como as voltas restantes são
+ * sempre múltiplas de k no teste, o resultado é o mesmo do laço original.
+ *
+ * Cada cópia ganha rótulos novos; os temporários podem ser repetidos, já
+ * que as cópias rodam em sequência.
+ */
+public class DesenrolamentoLacos implements TacPass {
+
+    public static final int FATOR_PADRAO = 4;
+    public static final int LIMITE_COMPLETO = 16;
+    public static final int MAX_INSTRUCOES = 64;
+
+    /** Limite da simulação; laços mais longos não são tratados. */
+    private static final int MAX_SIMULADAS = 1_000_000;
+
+    private final int fator;
+
+    /** @param fator cópias do corpo por teste no desenrolamento parcial (menor que 2 desliga) */
+    public DesenrolamentoLacos(int fator) {
+        this.fator = fator;
+    }
+
+    public DesenrolamentoLacos() {
+        this(FATOR_PADRAO);
+    }
+
+    /** Forma reconhecida de um laço candidato. */
+    private record Candidato(BlocoBasico cabecalho, BlocoBasico volta, String saida,
+                             List<TacInstr> corpo, int tamanho, int voltas) {}
+
+    @Override
+    public String nome() {
+        return "desenrolamento";
+    }
+
+    @Override
+    public List<TacInstr> aplicar(List<TacInstr> code) {
+        List<TacInstr> atual = code;
+        boolean mudou = true;
+        while (mudou) {
+            mudou = false;
+            GrafoFluxo g = GrafoFluxo.construir(atual);
+            Dominadores dom = new Dominadores(g);
+            Vivacidade viv = new Vivacidade(g);
+            DefinicoesAlcancantes defs = new DefinicoesAlcancantes(g);
+            for (LacoNatural laco : new Lacos(g, dom).todos()) {
+                Candidato c = reconhecer(g, dom, viv, defs, laco, atual);
+                if (c == null) continue;
+                List<TacInstr> novo = desenrolar(g, c, new NomesNovos(atual));
+                if (novo != null) {
+                    atual = novo;
+                    mudou = true;
+                    break;
+                }
+            }
+        }
+        return atual;
+    }
+
+    // ---------------- reconhecimento ----------------
+
+    private static Candidato reconhecer(GrafoFluxo g, Dominadores dom, Vivacidade viv,
+                                        DefinicoesAlcancantes defs, LacoNatural laco,
+                                        List<TacInstr> code) {
+        BlocoBasico h = laco.cabecalho;
+        if (h.rotulo() == null || h.instrucoes.size() != 3 || laco.fontesRetorno.size() != 1) return null;
+        BlocoBasico volta = laco.fontesRetorno.get(0);
+        TacInstr salto = volta.ultima();
+        if (salto.op != Op.JMP || !salto.a1.equals(h.rotulo())) return null;
+
+        // blocos contíguos: cabeçalho, corpo, ..., volta
+        if (volta.id - h.id + 1 != laco.corpo.size()) return null;
+        for (BlocoBasico b : laco.corpo) {
+            if (b.id < h.id || b.id > volta.id) return null;
+        }
+
+        TacInstr cmp = h.instrucoes.get(1), teste = h.instrucoes.get(2);
+        if (teste.op != Op.JMPFALSE || !teste.a1.equals(cmp.a1)) return null;
+        if (!TacInstr.ehComparacao(cmp.op)) return null;
+        BlocoBasico saida = g.blocoDoRotulo(teste.a2);
+        if (saida == null || laco.contem(saida) || laco.saidas().size() != 1) return null;
+        if (viv.vivasNaEntrada(saida).contains(cmp.a1)) return null;
+
+        // variável de controle e limite
+        Map<String, String> constantes = SelecaoImediatos.literais(code);
+        Op op;
+        String i;
+        String limite;
+        if (TacInstr.ehImediata(cmp.op)) {
+            op = TacInstr.formaBase(cmp.op);
+            i = cmp.a2;
+            limite = cmp.a3;
+        } else if (constantes.containsKey(cmp.a3)) {
+            op = cmp.op;
+            i = cmp.a2;
+            limite = constantes.get(cmp.a3);
+        } else if (constantes.containsKey(cmp.a2)) {
+            op = TacInstr.espelhada(cmp.op);
+            i = cmp.a3;
+            limite = constantes.get(cmp.a2);
+        } else {
+            return null;
+        }
+
+        // único incremento de i (e t não é escrito nem lido fora do teste)
+        TacInstr inc = null;
+        BlocoBasico blocoInc = null;
+        for (BlocoBasico b : laco.corpo) {
+            for (TacInstr in : b.instrucoes) {
+                if (in != teste && in.usados().contains(cmp.a1)) return null;
+                String d = in.definido();
+                if (d == null || in == cmp) continue;
+                if (d.equals(cmp.a1)) return null;
+                if (!d.equals(i)) continue;
+                if (inc != null || !TacInstr.ehImediata(in.op) || !in.a2.equals(i)) return null;
+                Op f = TacInstr.familia(in.op);
+                if (f != Op.ADD && f != Op.SUB) return null;
+                inc = in;
+                blocoInc = b;
+            }
+        }
+        if (inc == null || !dom.domina(blocoInc, volta)) return null;
+
+        // valor inicial: um único LOADI de i vindo de fora do laço
+        Set<TacInstr> doLaco = new HashSet<>();
+        for (BlocoBasico b : laco.corpo) doLaco.addAll(b.instrucoes);
+        TacInstr inicio = null;
+        for (TacInstr d : defs.naEntrada(h)) {
+            if (!i.equals(d.definido()) || doLaco.contains(d)) continue;
+            if (inicio != null) return null;
+            inicio = d;
+        }
+        if (inicio == null || inicio.op != Op.LOADI) return null;
+
+        if (!Aritmetica.literalExato(inicio.a2) || !Aritmetica.literalExato(limite)
+                || !Aritmetica.literalExato(inc.a3)) return null;
+        int voltas = simular(Double.parseDouble(inicio.a2.trim()), op, Double.parseDouble(limite.trim()),
+                             inc.op, Double.parseDouble(inc.a3.trim()));
+        if (voltas < 0) return null;
+
+        // corpo: tudo entre o cabeçalho e o JMP de volta
+        List<TacInstr> corpo = new ArrayList<>();
+        int tamanho = 0;
+        for (int b = h.id + 1; b <= volta.id; b++) {
+            for (TacInstr in : g.blocos().get(b).instrucoes) {
+                if (in == salto) continue;
+                corpo.add(in);
+                if (in.op != Op.LABEL) tamanho++;
+            }
+        }
+        return new Candidato(h, volta, teste.a2, corpo, tamanho, voltas);
+    }
+
+    /** Voltas até a condição falhar, ou -1 se passar de MAX_SIMULADAS (ou um inteiro deixar de ser exato). */
+    private static int simular(double i, Op cmp, double limite, Op passo, double c) {
+        boolean inteiro = TacInstr.ehInteira(passo);
+        int n = 0;
+        while (true) {
+            if (inteiro && !Aritmetica.exato(i)) return -1;
+            if (Aritmetica.calcular(cmp, i, limite) == 0) return n;
+            if (++n > MAX_SIMULADAS) return -1;
+            i = Aritmetica.calcular(passo, i, c);
+        }
+    }
+
+    // ---------------- reescrita ----------------
+
+    private List<TacInstr> desenrolar(GrafoFluxo g, Candidato c, NomesNovos nomes) {
+        List<TacInstr> novo = new ArrayList<>();
+        int n = c.voltas;
+        boolean completo = n <= LIMITE_COMPLETO && (long) n * c.tamanho <= MAX_INSTRUCOES;
+        int resto = completo ? 0 : n % fator;
+        if (!completo && (fator < 2 || n < fator
+                || (long) (fator + resto) * c.tamanho > MAX_INSTRUCOES)) return null;
+
+        for (BlocoBasico b : g.blocos()) {
+            if (b.id < c.cabecalho.id || b.id > c.volta.id) {
+                novo.addAll(b.instrucoes);
+                continue;
+            }
+            if (b != c.cabecalho) continue;
+
+            novo.add(b.instrucoes.get(0));                          // LABEL original (entradas de fora)
+            if (completo) {
+                for (int k = 0; k < n; k++) novo.addAll(copiar(c.corpo, nomes));
+                novo.add(TacInstr.jmp(c.saida));
+                continue;
+            }
+
+            for (int k = 0; k < resto; k++) novo.addAll(copiar(c.corpo, nomes));
+            String topo = nomes.rotulo();
+            novo.add(TacInstr.label(topo));
+            novo.add(b.instrucoes.get(1));
+            novo.add(b.instrucoes.get(2));
+            for (int k = 0; k < fator; k++) novo.addAll(copiar(c.corpo, nomes));
+            novo.add(TacInstr.jmp(topo));
+        }
+        return novo;
+    }
+
+    /**
+     * Cópia do corpo com todos os rótulos definidos nele trocados por novos.
+     * Toda instrução é uma instância nova: os passes comparam por identidade.
+     */
+    private static List<TacInstr> copiar(List<TacInstr> corpo, NomesNovos nomes) {
+        Map<String, String> ren = new HashMap<>();
+        for (TacInstr in : corpo) {
+            if (in.op == Op.LABEL) ren.put(in.label, nomes.rotulo());
+        }
+        List<TacInstr> out = new ArrayList<>(corpo.size());
+        for (TacInstr in : corpo) {
+            out.add(switch (in.op) {
+                case LABEL -> TacInstr.label(ren.get(in.label));
+                case JMP -> TacInstr.jmp(ren.getOrDefault(in.a1, in.a1));
+                case JMPFALSE -> TacInstr.jmpFalse(in.a1, ren.getOrDefault(in.a2, in.a2));
+                case JMPTRUE -> TacInstr.jmpTrue(in.a1, ren.getOrDefault(in.a2, in.a2));
+                default -> new TacInstr(in.op, in.a1, in.a2, in.a3, in.label);
+            });
+        }
+        return out;
+    }
+}
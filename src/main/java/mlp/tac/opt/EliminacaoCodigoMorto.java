@@ -0,0 +1,132 @@
+package mlp.tac.opt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+import mlp.tac.TacInstr;
+import mlp.tac.TacInstr.Op;
+import mlp.tac.cfg.BlocoBasico;
+import mlp.tac.cfg.DefinicoesAlcancantes;
+import mlp.tac.cfg.GrafoFluxo;
+import mlp.tac.cfg.Vivacidade;
+
+/**
+ * Eliminação de código morto sobre o grafo de fluxo. Repete até nada mudar:
+ *
+ *  1. desvios mortos: um JMPFALSE/JMPTRUE cuja condição só é alcançada por
+ *     LOADIs de um mesmo valor vira JMP (sempre salta) ou some (nunca salta);
+ *  2. blocos inalcançáveis a partir da entrada são removidos (o braço que
+ *     nunca roda, o código depois de um enquanto que não termina);
+ *  3. escritas mortas: uma definição cujo nome não está vivo logo depois
+ *     dela (ninguém lê antes de redefinir ou do fim do programa) é removida,
+ *     seja temporário ou variável.
+ *
+ * A propagação de constantes deixa as condições constantes como LOADI; este
+ * passe é quem tira o desvio e o braço morto. IDIV e IREM ficam sempre
+ * (dividir por zero é erro de execução); DIV e REM reais não falham.
+ */
+public class EliminacaoCodigoMorto implements TacPass {
+
+    @Override
+    public String nome() {
+        return "codigo-morto";
+    }
+
+    @Override
+    public List<TacInstr> aplicar(List<TacInstr> code) {
+        if (code.isEmpty()) return code;
+        List<TacInstr> atual = code;
+        while (true) {
+            List<TacInstr> prox = dobrarDesvios(atual);
+            prox = removerInalcancaveis(prox);
+            prox = removerEscritasMortas(prox);
+            if (prox == atual) return prox;             // passos devolvem a mesma lista se nada muda
+            atual = prox;
+        }
+    }
+
+    // ---------------- 1) desvios com condição constante ----------------
+
+    private static List<TacInstr> dobrarDesvios(List<TacInstr> code) {
+        GrafoFluxo g = GrafoFluxo.construir(code);
+        DefinicoesAlcancantes defs = new DefinicoesAlcancantes(g);
+        boolean mudou = false;
+        for (BlocoBasico b : g.blocos()) {
+            TacInstr ult = b.ultima();
+            if (ult.op != Op.JMPFALSE && ult.op != Op.JMPTRUE) continue;
+            Double c = constante(defs.alcancam(b, b.instrucoes.size() - 1, ult.a1));
+            if (c == null) continue;
+
+            boolean salta = (ult.op == Op.JMPFALSE) ? (c == 0) : (c != 0);
+            b.instrucoes.remove(b.instrucoes.size() - 1);
+            if (salta) b.instrucoes.add(TacInstr.jmp(ult.a2));
+            mudou = true;
+        }
+        return mudou ? g.linearizar() : code;
+    }
+
+    /** Valor comum de definições que são todas LOADI do mesmo valor, ou null. */
+    private static Double constante(Set<TacInstr> defs) {
+        Double v = null;
+        for (TacInstr d : defs) {
+            if (d.op != Op.LOADI) return null;
+            double c = Double.parseDouble(d.a2.trim());
+            if (v != null && Double.compare(v, c) != 0) return null;
+            v = c;
+        }
+        return v;
+    }
+
+    // ---------------- 2) blocos inalcançáveis ----------------
+
+    private static List<TacInstr> removerInalcancaveis(List<TacInstr> code) {
+        if (code.isEmpty()) return code;
+        GrafoFluxo g = GrafoFluxo.construir(code);
+        boolean[] alcancado = new boolean[g.tamanho()];
+        Deque<BlocoBasico> pilha = new ArrayDeque<>();
+        pilha.push(g.entrada());
+        alcancado[0] = true;
+        int vistos = 1;
+        while (!pilha.isEmpty()) {
+            for (BlocoBasico s : pilha.pop().sucessores) {
+                if (alcancado[s.id]) continue;
+                alcancado[s.id] = true;
+                vistos++;
+                pilha.push(s);
+            }
+        }
+        if (vistos == g.tamanho()) return code;
+
+        List<TacInstr> out = new ArrayList<>(code.size());
+        for (BlocoBasico b : g.blocos()) {
+            if (alcancado[b.id]) out.addAll(b.instrucoes);
+        }
+        return out;
+    }
+
+    // ---------------- 3) escritas mortas ----------------
+
+    private static List<TacInstr> removerEscritasMortas(List<TacInstr> code) {
+        GrafoFluxo g = GrafoFluxo.construir(code);
+        Vivacidade viv = new Vivacidade(g);
+        boolean mudou = false;
+        for (BlocoBasico b : g.blocos()) {
+            List<Set<String>> depois = viv.vivasDepoisDeCada(b);
+            for (int i = b.instrucoes.size() - 1; i >= 0; i--) {
+                TacInstr in = b.instrucoes.get(i);
+                String d = in.definido();
+                if (d == null || depois.get(i).contains(d) || !semEfeito(in)) continue;
+                b.instrucoes.remove(i);
+                mudou = true;
+            }
+        }
+        return mudou ? g.linearizar() : code;
+    }
+
+    private static boolean semEfeito(TacInstr in) {
+        return in.op != Op.IDIV && in.op != Op.IREM;
+    }
+}
@@ -0,0 +1,47 @@
+package mlp.tac.opt;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import mlp.tac.TacInstr;
+
+/**
+ * Remove instruções cujo destino nunca é lido em lugar nenhum do programa
+ * (tipicamente os LOAD/LOADI que sobram depois da propagação de cópias e de
+ * constantes; vale também para variáveis que ninguém lê). Repete até
+ * estabilizar, já que remover um uso pode matar a definição do operando.
+ *
+ * IDIV e IREM ficam sempre: dividir por zero é erro de execução. DIV e REM
+ * reais não falham (dão Infinity ou NaN) e saem como as demais.
+ */
+public class EliminacaoTempsMortos implements TacPass {
+
+    @Override
+    public String nome() {
+        return "temps-mortos";
+    }
+
+    @Override
+    public List<TacInstr> aplicar(List<TacInstr> code) {
+        List<TacInstr> atual = code;
+        while (true) {
+            Set<String> lidos = new HashSet<>();
+            for (TacInstr in : atual) lidos.addAll(in.usados());
+
+            List<TacInstr> prox = new ArrayList<>(atual.size());
+            for (TacInstr in : atual) {
+                String d = in.definido();
+                if (d != null && !lidos.contains(d) && semEfeito(in)) continue;
+                prox.add(in);
+            }
+            if (prox.size() == atual.size()) return prox;
+            atual = prox;
+        }
+    }
+
+    private static boolean semEfeito(TacInstr in) {
+        return in.op != TacInstr.Op.IDIV && in.op != TacInstr.Op.IREM;
+    }
+}
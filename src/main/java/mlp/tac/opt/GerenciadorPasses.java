@@ -0,0 +1,169 @@
+package mlp.tac.opt;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import mlp.tac.TacInstr;
+
+/**
+ * Gerenciador de passes: roda uma sequência ordenada de etapas entre o
+ * GeradorTAC e o interpretador, medindo cada passe.
+ *
+ * Uma etapa é um grupo de passes. Com ponto fixo ligado, os grupos marcados
+ * como repetíveis rodam de novo enquanto o código mudar (até MAX_VOLTAS);
+ * sem ele, cada grupo roda uma vez.
+ *
+ * Níveis (-O):
+ *   0  nenhum passe;
+ *   1  só os passes baratos: constantes, código morto, cópias, formas
+ *      imediatas, temporários mortos, peephole e alocação de temporários;
+ *   2  tudo: inclui GVN, LICM, variáveis de indução e o desenrolamento de
+ *      laços, seguido de uma nova rodada dos passes baratos sobre as cópias.
+ */
+public class GerenciadorPasses {
+
+    public static final int MAX_VOLTAS = 10;
+
+    private record Etapa(List<TacPass> passes, boolean repetivel) {}
+
+    /** Números de um passe do pipeline, somando todas as vezes em que rodou. */
+    public static final class Estatistica {
+        public final String nome;
+        int execucoes;
+        long nanos;
+        int antes = -1, depois;
+
+        Estatistica(String nome) { this.nome = nome; }
+
+        public int getExecucoes()        { return execucoes; }
+        public long getNanos()           { return nanos; }
+        /** Instruções na primeira vez em que o passe rodou. */
+        public int getInstrucoesAntes()  { return antes; }
+        /** Instruções na última vez em que o passe rodou. */
+        public int getInstrucoesDepois() { return depois; }
+    }
+
+    private final List<Etapa> etapas = new ArrayList<>();
+    private final Map<TacPass, Estatistica> estatisticas = new LinkedHashMap<>();   // por instância, na ordem do pipeline
+    private boolean pontoFixo;
+    private int voltas;
+
+    public GerenciadorPasses adicionar(TacPass passe) {
+        etapas.add(new Etapa(List.of(passe), false));
+        return this;
+    }
+
+    /** Grupo que, com ponto fixo, repete enquanto o código mudar. */
+    public GerenciadorPasses adicionarGrupo(TacPass... passes) {
+        etapas.add(new Etapa(List.of(passes), true));
+        return this;
+    }
+
+    public GerenciadorPasses setPontoFixo(boolean pontoFixo) {
+        this.pontoFixo = pontoFixo;
+        return this;
+    }
+
+    /** Pipeline padrão de cada nível. */
+    public static GerenciadorPasses paraNivel(int nivel, Set<String> variaveis, Set<String> inteiras) {
+        return paraNivel(nivel, variaveis, inteiras, DesenrolamentoLacos.FATOR_PADRAO);
+    }
+
+    /** @param fatorDesenrolamento cópias do corpo por teste (menor que 2 desliga o desenrolamento parcial) */
+    public static GerenciadorPasses paraNivel(int nivel, Set<String> variaveis, Set<String> inteiras,
+                                              int fatorDesenrolamento) {
+        GerenciadorPasses gp = new GerenciadorPasses();
+        if (nivel <= 0) return gp;
+        if (nivel == 1) {
+            return gp.adicionarGrupo(new PropagacaoConstantes(),
+                                     new EliminacaoCodigoMorto(),
+                                     new PropagacaoCopias(),
+                                     new SelecaoImediatos(),
+                                     new EliminacaoTempsMortos(),
+                                     new Peephole())
+                     .adicionar(new AlocacaoTemps(variaveis));
+        }
+        return gp.adicionarGrupo(new PropagacaoConstantes(),
+                                 new EliminacaoCodigoMorto(),
+                                 new NumeracaoValores(),
+                                 new PropagacaoCopias(),
+                                 new EliminacaoTempsMortos(),   // cópias mortas de i impedem a eliminação na indução
+                                 new MovimentacaoInvariantes(),
+                                 new VariaveisInducao(inteiras),
+                                 new PropagacaoCopias(),
+                                 new SelecaoImediatos(),
+                                 new EliminacaoTempsMortos(),
+                                 new Peephole())
+                 .adicionar(new DesenrolamentoLacos(fatorDesenrolamento))
+                 .adicionarGrupo(new PropagacaoConstantes(),
+                                 new EliminacaoCodigoMorto(),
+                                 new PropagacaoCopias(),
+                                 new SelecaoImediatos(),
+                                 new EliminacaoTempsMortos(),
+                                 new Peephole())
+                 .adicionar(new AlocacaoTemps(variaveis));
+    }
+
+    public List<TacInstr> executar(List<TacInstr> code) {
+        estatisticas.clear();
+        voltas = 0;
+        List<TacInstr> atual = code;
+        for (Etapa e : etapas) {
+            int limite = (pontoFixo && e.repetivel) ? MAX_VOLTAS : 1;
+            for (int v = 0; v < limite; v++) {
+                List<TacInstr> inicio = atual;
+                for (TacPass p : e.passes) atual = rodar(p, atual);
+                if (e.repetivel) voltas = Math.max(voltas, v + 1);
+                if (mesmoCodigo(inicio, atual)) break;
+            }
+        }
+        return atual;
+    }
+
+    private List<TacInstr> rodar(TacPass p, List<TacInstr> code) {
+        Estatistica est = estatisticas.computeIfAbsent(p, x -> new Estatistica(x.nome()));
+        long t0 = System.nanoTime();
+        List<TacInstr> res = p.aplicar(code);
+        est.nanos += System.nanoTime() - t0;
+        est.execucoes++;
+        if (est.antes < 0) est.antes = code.size();
+        est.depois = res.size();
+        return res;
+    }
+
+    /** TacInstr não tem equals; compara pelo texto. */
+    private static boolean mesmoCodigo(List<TacInstr> a, List<TacInstr> b) {
+        if (a == b) return true;
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).toString().equals(b.get(i).toString())) return false;
+        }
+        return true;
+    }
+
+    public List<Estatistica> getEstatisticas() {
+        return new ArrayList<>(estatisticas.values());
+    }
+
+    /** Voltas do grupo repetível que mais rodou (1 sem ponto fixo). */
+    public int getVoltas() {
+        return voltas;
+    }
+
+    public void imprimirEstatisticas(PrintStream out) {
+        out.printf("  %-14s %6s %7s %7s %10s%n", "PASSE", "VEZES", "ANTES", "DEPOIS", "TEMPO(ms)");
+        long total = 0;
+        for (Estatistica e : estatisticas.values()) {
+            out.printf("  %-14s %6d %7d %7d %10.3f%n",
+                    e.nome, e.execucoes, e.antes, e.depois, e.nanos / 1e6);
+            total += e.nanos;
+        }
+        out.printf("  %-14s %6s %7s %7s %10.3f%n", "total", "", "", "", total / 1e6);
+        if (pontoFixo) out.println("  voltas ate o ponto fixo: " + voltas);
+        out.println();
+    }
+}
@@ -0,0 +1,162 @@
+package mlp.tac.opt;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import mlp.tac.Perfil;
+import mlp.tac.TacInstr;
+import mlp.tac.TacInstr.Op;
+import mlp.tac.cfg.BlocoBasico;
+import mlp.tac.cfg.GrafoFluxo;
+
+/**
+ * Layout de blocos guiado por perfil (Pettis e Hansen, de baixo para cima).
+ *
+ * As arestas do grafo recebem o número de vezes em que foram percorridas na
+ * execução de coleta. Da mais pesada para a mais leve, cada aresta a -> b
+ * junta a cadeia que termina em a com a que começa em b, de modo que b passa
+ * a vir logo depois de a. A cadeia da entrada fica primeiro e as demais
+ * seguem da mais executada para a menos (código frio vai para o fim).
+ *
+ * Depois os desvios são acertados para o novo layout: um JMPFALSE/JMPTRUE
+ * cujo alvo agora é o próximo bloco é invertido para saltar ao antigo
+ * "cair para o próximo", um JMP para o próximo some e um bloco que caía
+ * para outro ganha um JMP explícito. Assim o caminho quente cai direto.
+ *
+ * Roda depois da alocação de temporários, sobre exatamente o código em que o
+ * perfil foi coletado; se a assinatura não bater, não faz nada.
+ */
+public class LayoutPorPerfil implements TacPass {
+
+    private final Perfil perfil;
+    private boolean aplicado;
+
+    public LayoutPorPerfil(Perfil perfil) {
+        this.perfil = perfil;
+    }
+
+    /** false se o perfil não correspondia ao código da última aplicação. */
+    public boolean foiAplicado() {
+        return aplicado;
+    }
+
+    @Override
+    public String nome() {
+        return "layout-perfil";
+    }
+
+    private record Aresta(BlocoBasico de, BlocoBasico para, long peso) {}
+
+    @Override
+    public List<TacInstr> aplicar(List<TacInstr> code) {
+        aplicado = perfil.correspondeA(code);
+        if (!aplicado || code.isEmpty()) return code;
+
+        GrafoFluxo g = GrafoFluxo.construir(code);
+        int[] inicio = Perfil.inicios(g);
+        List<BlocoBasico> ordem = ordenar(g, inicio);
+        if (mesmaOrdem(ordem)) return code;
+        return reescrever(g, ordem, new NomesNovos(code));
+    }
+
+    // ---------------- cadeias ----------------
+
+    private List<BlocoBasico> ordenar(GrafoFluxo g, int[] inicio) {
+        List<Aresta> arestas = new ArrayList<>();
+        for (BlocoBasico b : g.blocos()) {
+            for (BlocoBasico s : b.sucessores) {
+                long p = perfil.aresta(g, inicio, b, s);
+                if (p > 0 && s != b && s != g.entrada()) arestas.add(new Aresta(b, s, p));
+            }
+        }
+        arestas.sort(Comparator.comparingLong((Aresta a) -> -a.peso)
+                               .thenComparingInt(a -> a.de.id)
+                               .thenComparingInt(a -> a.para.id));
+
+        // cada bloco começa na própria cadeia
+        List<List<BlocoBasico>> cadeias = new ArrayList<>();
+        int[] cadeiaDe = new int[g.tamanho()];
+        for (BlocoBasico b : g.blocos()) {
+            cadeias.add(new ArrayList<>(List.of(b)));
+            cadeiaDe[b.id] = b.id;
+        }
+        for (Aresta a : arestas) {
+            List<BlocoBasico> ca = cadeias.get(cadeiaDe[a.de.id]);
+            List<BlocoBasico> cb = cadeias.get(cadeiaDe[a.para.id]);
+            if (ca == cb || ca.get(ca.size() - 1) != a.de || cb.get(0) != a.para) continue;
+            for (BlocoBasico x : cb) cadeiaDe[x.id] = cadeiaDe[a.de.id];
+            ca.addAll(cb);
+            cb.clear();
+        }
+
+        List<List<BlocoBasico>> resto = new ArrayList<>();
+        for (List<BlocoBasico> c : cadeias) {
+            if (!c.isEmpty() && c.get(0) != g.entrada()) resto.add(c);
+        }
+        resto.sort(Comparator.comparingLong((List<BlocoBasico> c) -> -perfil.execucoes(inicio[c.get(0).id]))
+                             .thenComparingInt(c -> c.get(0).id));
+
+        List<BlocoBasico> ordem = new ArrayList<>(cadeias.get(cadeiaDe[g.entrada().id]));
+        for (List<BlocoBasico> c : resto) ordem.addAll(c);
+        return ordem;
+    }
+
+    private static boolean mesmaOrdem(List<BlocoBasico> ordem) {
+        for (int i = 0; i < ordem.size(); i++) {
+            if (ordem.get(i).id != i) return false;
+        }
+        return true;
+    }
+
+    // ---------------- desvios ----------------
+
+    private static List<TacInstr> reescrever(GrafoFluxo g, List<BlocoBasico> ordem, NomesNovos nomes) {
+        Map<BlocoBasico, String> rotulos = new HashMap<>();
+        String[] fim = new String[1];                      // rótulo do fim do programa, se preciso
+
+        List<List<TacInstr>> corpos = new ArrayList<>();
+        for (int i = 0; i < ordem.size(); i++) {
+            BlocoBasico b = ordem.get(i);
+            BlocoBasico prox = (i + 1 < ordem.size()) ? ordem.get(i + 1) : null;
+            BlocoBasico queda = (b.id + 1 < g.tamanho()) ? g.blocos().get(b.id + 1) : null;   // null = fim
+
+            List<TacInstr> l = new ArrayList<>(b.instrucoes);
+            TacInstr ult = l.get(l.size() - 1);
+            if (ult.op == Op.JMP) {
+                if (prox != null && prox == g.blocoDoRotulo(ult.a1)) l.remove(l.size() - 1);
+            } else if (queda != prox) {
+                String destinoQueda = rotulo(queda, rotulos, nomes, fim);
+                boolean condicional = ult.op == Op.JMPFALSE || ult.op == Op.JMPTRUE;
+                if (condicional && prox != null && prox == g.blocoDoRotulo(ult.a2)) {
+                    l.set(l.size() - 1, (ult.op == Op.JMPFALSE) ? TacInstr.jmpTrue(ult.a1, destinoQueda)
+                                                               : TacInstr.jmpFalse(ult.a1, destinoQueda));
+                } else {
+                    l.add(TacInstr.jmp(destinoQueda));
+                }
+            }
+            corpos.add(l);
+        }
+
+        List<TacInstr> out = new ArrayList<>();
+        for (int i = 0; i < ordem.size(); i++) {
+            String r = rotulos.get(ordem.get(i));
+            if (r != null && ordem.get(i).rotulo() == null) out.add(TacInstr.label(r));
+            out.addAll(corpos.get(i));
+        }
+        if (fim[0] != null) out.add(TacInstr.label(fim[0]));
+        return out;
+    }
+
+    /** Rótulo do bloco (criando um se ele não tem); null representa o fim do programa. */
+    private static String rotulo(BlocoBasico b, Map<BlocoBasico, String> rotulos, NomesNovos nomes, String[] fim) {
+        if (b == null) {
+            if (fim[0] == null) fim[0] = nomes.rotulo();
+            return fim[0];
+        }
+        if (b.rotulo() != null) return b.rotulo();
+        return rotulos.computeIfAbsent(b, x -> nomes.rotulo());
+    }
+}
@@ -0,0 +1,157 @@
+package mlp.tac.opt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import mlp.tac.Aritmetica;
+import mlp.tac.TacInstr;
+import mlp.tac.TacInstr.Op;
+import mlp.tac.cfg.BlocoBasico;
+import mlp.tac.cfg.Dominadores;
+import mlp.tac.cfg.GrafoFluxo;
+import mlp.tac.cfg.LacoNatural;
+import mlp.tac.cfg.Lacos;
+import mlp.tac.cfg.Vivacidade;
+
+/**
+ * Movimentação de código invariante de laço (LICM).
+ *
+ * Uma instrução do laço é invariante quando cada operando ou não é definido
+ * dentro do laço ou é definido por uma única instrução do laço que já é
+ * invariante. Ela sobe para um pré-cabeçalho (bloco novo antes do
+ * cabeçalho, por onde passam só as arestas que entram no laço) se:
+ *  - o destino é definido uma única vez no laço;
+ *  - o destino não está vivo na entrada do cabeçalho (nenhuma leitura vê o
+ *    valor da volta anterior ou de antes do laço);
+ *  - o bloco domina todas as saídas do laço, ou o destino está morto depois
+ *    do laço (o pré-cabeçalho roda mesmo quando o laço tem zero voltas);
+ *  - não pode falhar: DIV e REM (e IDIV/IREM) só sobem com divisor
+ *    constante diferente de zero, já que executariam em caminhos que antes
+ *    não os executavam.
+ *
+ * Os laços são tratados do mais interno para o mais externo, refazendo o
+ * grafo a cada movimentação, então o que sobe para o pré-cabeçalho de um
+ * laço interno ainda pode sair do laço externo.
+ */
+public class MovimentacaoInvariantes implements TacPass {
+
+    @Override
+    public String nome() {
+        return "licm";
+    }
+
+    @Override
+    public List<TacInstr> aplicar(List<TacInstr> code) {
+        List<TacInstr> atual = code;
+        boolean mudou = true;
+        while (mudou) {
+            mudou = false;
+            GrafoFluxo g = GrafoFluxo.construir(atual);
+            Dominadores dom = new Dominadores(g);
+            Vivacidade viv = new Vivacidade(g);
+            for (LacoNatural laco : new Lacos(g, dom).todos()) {
+                List<TacInstr> novo = mover(atual, g, dom, viv, laco);
+                if (novo != null) {
+                    atual = novo;
+                    mudou = true;
+                    break;
+                }
+            }
+        }
+        return atual;
+    }
+
+    /** Código com os invariantes do laço no pré-cabeçalho, ou null se nada sobe. */
+    private List<TacInstr> mover(List<TacInstr> code, GrafoFluxo g, Dominadores dom,
+                                 Vivacidade viv, LacoNatural laco) {
+        BlocoBasico cab = laco.cabecalho;
+        if (cab.rotulo() == null) return null;
+
+        // definições dentro do laço, por nome
+        Map<String, Integer> defs = new HashMap<>();
+        Map<String, TacInstr> constantes = new HashMap<>();
+        for (BlocoBasico b : laco.corpo) {
+            for (TacInstr in : b.instrucoes) {
+                String d = in.definido();
+                if (d == null) continue;
+                defs.merge(d, 1, Integer::sum);
+                if (in.op == Op.LOADI) constantes.put(d, in);
+            }
+        }
+
+        // saídas: blocos do laço com sucessor fora dele
+        List<BlocoBasico> saindo = new ArrayList<>();
+        for (BlocoBasico b : laco.corpo) {
+            for (BlocoBasico s : b.sucessores) {
+                if (!laco.contem(s)) { saindo.add(b); break; }
+            }
+        }
+        Set<String> vivasDepois = new HashSet<>();
+        for (BlocoBasico s : laco.saidas()) vivasDepois.addAll(viv.vivasNaEntrada(s));
+
+        // marca invariantes até estabilizar (ordem de marcação = ordem de emissão)
+        Set<TacInstr> invariantes = new LinkedHashSet<>();
+        Set<String> nomesInvariantes = new HashSet<>();
+        List<BlocoBasico> ordem = new ArrayList<>();
+        for (BlocoBasico b : g.posOrdemReversa()) {
+            if (laco.contem(b)) ordem.add(b);
+        }
+        boolean achou = true;
+        while (achou) {
+            achou = false;
+            for (BlocoBasico b : ordem) {
+                for (TacInstr in : b.instrucoes) {
+                    if (invariantes.contains(in) || !movivel(in)) continue;
+                    String d = in.definido();
+                    if (defs.get(d) != 1 || viv.vivasNaEntrada(cab).contains(d)) continue;
+                    if (!operandosInvariantes(in, defs, nomesInvariantes)) continue;
+                    if (!seguro(in, defs, constantes, nomesInvariantes)) continue;
+                    if (vivasDepois.contains(d) && !dominaSaidas(dom, b, saindo)) continue;
+                    invariantes.add(in);
+                    nomesInvariantes.add(d);
+                    achou = true;
+                }
+            }
+        }
+        if (invariantes.isEmpty()) return null;
+
+        for (BlocoBasico b : laco.corpo) b.instrucoes.removeIf(invariantes::contains);
+        return PreCabecalho.inserir(g, laco, new ArrayList<>(invariantes), new NomesNovos(code));
+    }
+
+    private static boolean movivel(TacInstr in) {
+        return switch (in.op) {
+            case LOADI, LOAD, STORE, ITOR -> true;
+            default -> Aritmetica.ehBinaria(in.op);
+        };
+    }
+
+    private static boolean operandosInvariantes(TacInstr in, Map<String, Integer> defs, Set<String> invariantes) {
+        for (String u : in.usados()) {
+            if (defs.containsKey(u) && !invariantes.contains(u)) return false;
+        }
+        return true;
+    }
+
+    /** DIV/REM só com divisor constante não nulo (fora do laço não se sabe o valor). */
+    private static boolean seguro(TacInstr in, Map<String, Integer> defs, Map<String, TacInstr> constantes,
+                                  Set<String> invariantes) {
+        Op f = TacInstr.familia(in.op);
+        if (f != Op.DIV && f != Op.REM) return true;
+        TacInstr k = constantes.get(in.a3);
+        if (k == null || defs.get(in.a3) != 1 || !invariantes.contains(in.a3)) return false;
+        return Double.parseDouble(k.a2.trim()) != 0;
+    }
+
+    private static boolean dominaSaidas(Dominadores dom, BlocoBasico b, List<BlocoBasico> saindo) {
+        for (BlocoBasico s : saindo) {
+            if (!dom.domina(b, s)) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,41 @@
+package mlp.tac.opt;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import mlp.tac.TacInstr;
+
+/**
+ * Gera temporários e rótulos que ainda não aparecem no código, no mesmo
+ * formato do GeradorTAC ("t" + n, "L" + n). Cada nome devolvido fica
+ * reservado.
+ */
+final class NomesNovos {
+
+    private final Set<String> nomes = new HashSet<>();
+    private final Set<String> rotulos = new HashSet<>();
+    private int proxTemp, proxRotulo;
+
+    NomesNovos(List<TacInstr> code) {
+        for (TacInstr in : code) {
+            if (in.op == TacInstr.Op.LABEL) rotulos.add(in.label);
+            if (in.definido() != null) nomes.add(in.definido());
+            nomes.addAll(in.usados());
+        }
+        proxTemp = nomes.size();
+        proxRotulo = rotulos.size();
+    }
+
+    String temporario() {
+        String t;
+        do { t = "t" + (proxTemp++); } while (!nomes.add(t));
+        return t;
+    }
+
+    String rotulo() {
+        String r;
+        do { r = "L" + (proxRotulo++); } while (!rotulos.add(r));
+        return r;
+    }
+}
@@ -0,0 +1,154 @@
+package mlp.tac.opt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import mlp.tac.Aritmetica;
+import mlp.tac.TacInstr;
+import mlp.tac.TacInstr.Op;
+import mlp.tac.cfg.BlocoBasico;
+import mlp.tac.cfg.Dominadores;
+import mlp.tac.ssa.FormaSSA;
+import mlp.tac.ssa.Phi;
+
+/**
+ * Numeração global de valores (dominator-based value numbering) sobre a
+ * forma SSA.
+ *
+ * Percorre a árvore de dominadores com uma tabela de expressões com escopo:
+ * cada nome recebe um número de valor (o nome de quem o calculou primeiro),
+ * cópias herdam o número da origem, constantes iguais compartilham número e
+ * uma phi cujos argumentos têm todos o mesmo número vale esse número. Uma
+ * operação cuja expressão (operação + números dos operandos) já foi calculada
+ * num bloco dominador é trocada por uma cópia do líder, que fica isolado num
+ * temporário próprio na volta do SSA.
+ *
+ * Assim "i RESTO 7" na condição de um se e de novo no corpo é calculado uma
+ * vez só, mesmo estando em blocos diferentes. A cópia que sobra é limpa pela
+ * propagação de cópias e pela eliminação de temporários mortos.
+ */
+public class NumeracaoValores implements TacPass {
+
+    @Override
+    public String nome() {
+        return "gvn";
+    }
+
+    @Override
+    public List<TacInstr> aplicar(List<TacInstr> code) {
+        if (code.isEmpty()) return code;
+
+        FormaSSA ssa = FormaSSA.construir(code);
+        Dominadores dom = ssa.dominadores();
+
+        Map<String, String> numero = new HashMap<>();   // versão -> número de valor
+        Map<String, String> tabela = new HashMap<>();   // expressão -> líder
+        List<List<String>> chavesDoBloco = new ArrayList<>();
+        for (int i = 0; i < ssa.grafo().tamanho(); i++) chavesDoBloco.add(null);
+
+        Deque<BlocoBasico> visita = new ArrayDeque<>();
+        Set<BlocoBasico> aberto = new HashSet<>();
+        visita.push(ssa.grafo().entrada());
+        boolean mudou = false;
+        while (!visita.isEmpty()) {
+            BlocoBasico b = visita.pop();
+            if (aberto.remove(b)) {
+                for (String k : chavesDoBloco.get(b.id)) tabela.remove(k);
+                continue;
+            }
+            aberto.add(b);
+            visita.push(b);
+
+            List<String> minhas = new ArrayList<>();
+            chavesDoBloco.set(b.id, minhas);
+
+            for (Phi p : ssa.phis(b)) {
+                String unico = num(numero, p.arg(0));
+                StringBuilder chave = new StringBuilder("PHI ").append(b.id);
+                for (int j = 0; j < p.numArgs(); j++) {
+                    String a = num(numero, p.arg(j));
+                    if (!a.equals(unico)) unico = null;
+                    chave.append(' ').append(a);
+                }
+                if (unico != null && !unico.equals(p.destino())) {
+                    numero.put(p.destino(), unico);
+                } else {
+                    numero.put(p.destino(), registrar(tabela, minhas, chave.toString(), p.destino()));
+                }
+            }
+
+            for (int i = 0; i < b.instrucoes.size(); i++) {
+                TacInstr in = b.instrucoes.get(i);
+                String d = in.definido();
+                if (d == null) continue;
+
+                switch (in.op) {
+                    case LOAD, STORE -> numero.put(d, num(numero, in.a2));
+                    case LOADI -> numero.put(d, registrar(tabela, minhas, "K " + constante(in.a2), d));
+                    default -> {
+                        String chave = expressao(in, numero);
+                        String lider = tabela.get(chave);
+                        if (lider == null) {
+                            registrar(tabela, minhas, chave, d);
+                            numero.put(d, d);
+                        } else {
+                            b.instrucoes.set(i, TacInstr.load(d, lider));
+                            ssa.isolar(lider);
+                            numero.put(d, lider);
+                            mudou = true;
+                        }
+                    }
+                }
+            }
+
+            for (BlocoBasico f : dom.filhos(b)) visita.push(f);
+        }
+
+        return mudou ? ssa.destruir() : code;
+    }
+
+    private static String num(Map<String, String> numero, String nome) {
+        return numero.getOrDefault(nome, nome);
+    }
+
+    /** Líder já registrado para a chave, ou registra 'nome' como líder. */
+    private static String registrar(Map<String, String> tabela, List<String> minhas,
+                                    String chave, String nome) {
+        String lider = tabela.get(chave);
+        if (lider != null) return lider;
+        tabela.put(chave, nome);
+        minhas.add(chave);
+        return nome;
+    }
+
+    /** Chave da expressão, com operandos comutativos/espelhados em forma canônica. */
+    private static String expressao(TacInstr in, Map<String, String> numero) {
+        String a = num(numero, in.a2);
+        if (in.op == Op.ITOR) return in.op + " " + a;
+        if (TacInstr.ehImediata(in.op)) {
+            return in.op + " " + a + " #" + constante(in.a3);
+        }
+        String b = num(numero, in.a3);
+        Op op = in.op;
+        switch (op) {
+            case CMPGT, CMPGE, ICMPGT, ICMPGE -> { op = TacInstr.espelhada(op); String x = a; a = b; b = x; }
+            case ADD, MUL, CMPEQ, CMPNE, IADD, IMUL, ICMPEQ, ICMPNE -> {
+                if (a.compareTo(b) > 0) { String x = a; a = b; b = x; }
+            }
+            default -> {}
+        }
+        return op + " " + a + " " + b;
+    }
+
+    /** Valor do literal na chave: inteiros e reais iguais não se confundem ("7" e "7.0"). */
+    private static String constante(String literal) {
+        return Aritmetica.ehLiteralInteiro(literal) ? "L" + Long.parseLong(literal.trim())
+                                                    : "D" + Double.parseDouble(literal.trim());
+    }
+}
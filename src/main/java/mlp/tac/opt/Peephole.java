@@ -0,0 +1,208 @@
+package mlp.tac.opt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import mlp.tac.TacInstr;
+import mlp.tac.TacInstr.Op;
+import mlp.tac.cfg.GrafoFluxo;
+
+/**
+ * Otimizador peephole e encadeamento de saltos. Aplica o catálogo abaixo
+ * até nada mudar:
+ *
+ *  1. salto para salto: um desvio para L, onde a primeira instrução depois
+ *     de L é "JMP M", passa a ir direto para M (seguindo a cadeia). Um
+ *     JMPFALSE/JMPTRUE para um desvio do mesmo tipo sobre o mesmo nome
+ *     também é encadeado, já que o resultado do teste é o mesmo;
+ *  2. salto para o próximo: JMP/JMPFALSE/JMPTRUE para um rótulo que vem
+ *     logo em seguida (só rótulos no meio) é removido;
+ *  3. inversão: "JMPFALSE t, L1 ; JMP L2 ; LABEL L1" vira
+ *     "JMPTRUE t, L2 ; LABEL L1" (e vice-versa), favorecendo o caminho
+ *     que cai direto;
+ *  4. código morto depois de um JMP, até o próximo rótulo, é removido;
+ *  5. rótulos que nenhum desvio referencia são removidos;
+ *  6. NOP, cópias de um nome nele mesmo, IADDI/ISUBI/SUBI com 0 e
+ *     IMULI/MULI com 1 são removidos ou viram cópia simples (ADDI real com 0
+ *     não: -0.0 + 0 é +0.0).
+ */
+public class Peephole implements TacPass {
+
+    @Override
+    public String nome() {
+        return "peephole";
+    }
+
+    @Override
+    public List<TacInstr> aplicar(List<TacInstr> code) {
+        List<TacInstr> atual = code;
+        while (true) {
+            List<TacInstr> prox = simplificar(atual);
+            prox = encadear(prox);
+            prox = inverter(prox);
+            prox = removerMortos(prox);
+            prox = removerRotulos(prox);
+            if (prox.equals(atual)) return prox;        // passos devolvem as mesmas instâncias se nada muda
+            atual = prox;
+        }
+    }
+
+    // ---------------- 6) instruções nulas ----------------
+
+    private static List<TacInstr> simplificar(List<TacInstr> code) {
+        List<TacInstr> out = new ArrayList<>(code.size());
+        for (TacInstr in : code) {
+            switch (in.op) {
+                case NOP -> { continue; }
+                case LOAD, STORE -> { if (in.a1.equals(in.a2)) continue; }
+                case SUBI, MULI, IADDI, ISUBI, IMULI -> {
+                    if (neutro(in)) {
+                        if (!in.a1.equals(in.a2)) out.add(TacInstr.load(in.a1, in.a2));
+                        continue;
+                    }
+                }
+                default -> {}
+            }
+            out.add(in);
+        }
+        return out;
+    }
+
+    /**
+     * true se o imediato não muda o valor: 1 no produto, 0 na soma/subtração
+     * inteira e +0.0 na subtração real. ADDI real com 0 fica: -0.0 + 0 dá +0.0.
+     */
+    private static boolean neutro(TacInstr in) {
+        double k = Double.parseDouble(in.a3.trim());
+        if (TacInstr.familia(in.op) == Op.MUL) return k == 1;
+        if (in.op == Op.SUBI) return Double.doubleToRawLongBits(k) == 0;       // x - (-0.0) é x + 0
+        return k == 0;
+    }
+
+        // ---------------- 1) e 2) saltos ----------------
+
+    private static List<TacInstr> encadear(List<TacInstr> code) {
+        Map<String, Integer> posRotulo = rotulos(code);
+        List<TacInstr> out = new ArrayList<>(code.size());
+        for (int i = 0; i < code.size(); i++) {
+            TacInstr in = code.get(i);
+            if (!GrafoFluxo.ehDesvio(in.op)) {
+                out.add(in);
+                continue;
+            }
+            String alvo = destinoFinal(code, posRotulo, in);
+            if (rotuloLogoAdiante(code, i, alvo)) continue;        // 2) salto para o próximo
+            out.add(alvo.equals(alvo(in)) ? in : comAlvo(in, alvo));
+        }
+        return out;
+    }
+
+    /** Segue a cadeia de saltos a partir do alvo do desvio (com proteção contra ciclos). */
+    private static String destinoFinal(List<TacInstr> code, Map<String, Integer> posRotulo, TacInstr desvio) {
+        String alvo = alvo(desvio);
+        Set<String> vistos = new HashSet<>();
+        while (vistos.add(alvo)) {
+            Integer p = posRotulo.get(alvo);
+            if (p == null) break;
+            TacInstr prim = primeiraReal(code, p);
+            if (prim == null) break;
+            if (prim.op == Op.JMP) {
+                alvo = prim.a1;
+            } else if (desvio.op != Op.JMP && prim.op == desvio.op && prim.a1.equals(desvio.a1)) {
+                alvo = prim.a2;                                   // mesmo teste, mesmo resultado
+            } else {
+                break;
+            }
+        }
+        return alvo;
+    }
+
+    /** Primeira instrução que não é LABEL a partir de p, ou null no fim do código. */
+    private static TacInstr primeiraReal(List<TacInstr> code, int p) {
+        for (int i = p; i < code.size(); i++) {
+            if (code.get(i).op != Op.LABEL) return code.get(i);
+        }
+        return null;
+    }
+
+    /** true se 'rotulo' aparece entre i e a próxima instrução que não é LABEL. */
+    private static boolean rotuloLogoAdiante(List<TacInstr> code, int i, String rotulo) {
+        for (int j = i + 1; j < code.size() && code.get(j).op == Op.LABEL; j++) {
+            if (code.get(j).label.equals(rotulo)) return true;
+        }
+        return false;
+    }
+
+    // ---------------- 3) inversão de desvio ----------------
+
+    private static List<TacInstr> inverter(List<TacInstr> code) {
+        List<TacInstr> out = new ArrayList<>(code.size());
+        for (int i = 0; i < code.size(); i++) {
+            TacInstr in = code.get(i);
+            if ((in.op == Op.JMPFALSE || in.op == Op.JMPTRUE) && i + 2 < code.size()) {
+                TacInstr salto = code.get(i + 1);
+                if (salto.op == Op.JMP && rotuloLogoAdiante(code, i + 1, in.a2)) {
+                    out.add(in.op == Op.JMPFALSE ? TacInstr.jmpTrue(in.a1, salto.a1)
+                                                 : TacInstr.jmpFalse(in.a1, salto.a1));
+                    i++;
+                    continue;
+                }
+            }
+            out.add(in);
+        }
+        return out;
+    }
+
+    // ---------------- 4) e 5) código e rótulos mortos ----------------
+
+    private static List<TacInstr> removerMortos(List<TacInstr> code) {
+        List<TacInstr> out = new ArrayList<>(code.size());
+        boolean morto = false;
+        for (TacInstr in : code) {
+            if (in.op == Op.LABEL) morto = false;
+            if (morto) continue;
+            out.add(in);
+            if (in.op == Op.JMP) morto = true;
+        }
+        return out;
+    }
+
+    private static List<TacInstr> removerRotulos(List<TacInstr> code) {
+        Set<String> referenciados = new HashSet<>();
+        for (TacInstr in : code) {
+            if (GrafoFluxo.ehDesvio(in.op)) referenciados.add(alvo(in));
+        }
+        List<TacInstr> out = new ArrayList<>(code.size());
+        for (TacInstr in : code) {
+            if (in.op == Op.LABEL && !referenciados.contains(in.label)) continue;
+            out.add(in);
+        }
+        return out;
+    }
+
+    // ---------------- utilidades ----------------
+
+    private static Map<String, Integer> rotulos(List<TacInstr> code) {
+        Map<String, Integer> m = new HashMap<>();
+        for (int i = 0; i < code.size(); i++) {
+            if (code.get(i).op == Op.LABEL) m.put(code.get(i).label, i);
+        }
+        return m;
+    }
+
+    private static String alvo(TacInstr desvio) {
+        return (desvio.op == Op.JMP) ? desvio.a1 : desvio.a2;
+    }
+
+    private static TacInstr comAlvo(TacInstr desvio, String alvo) {
+        return switch (desvio.op) {
+            case JMP -> TacInstr.jmp(alvo);
+            case JMPFALSE -> TacInstr.jmpFalse(desvio.a1, alvo);
+            default -> TacInstr.jmpTrue(desvio.a1, alvo);
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package mlp.tac.opt;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import mlp.tac.TacInstr;
+import mlp.tac.cfg.BlocoBasico;
+import mlp.tac.cfg.GrafoFluxo;
+import mlp.tac.cfg.LacoNatural;
+
+/**
+ * Montagem de um pré-cabeçalho: bloco novo logo antes do cabeçalho do laço,
+ * por onde passam só as arestas que entram no laço. Usado pelos passes que
+ * precisam de um lugar que roda uma vez antes da primeira volta.
+ */
+final class PreCabecalho {
+
+    private PreCabecalho() {}
+
+    /**
+     * Lineariza o grafo (com o conteúdo atual dos blocos) colocando
+     * 'conteudo' num pré-cabeçalho do laço. O cabeçalho precisa ter rótulo.
+     */
+    static List<TacInstr> inserir(GrafoFluxo g, LacoNatural laco, List<TacInstr> conteudo, NomesNovos nomes) {
+        BlocoBasico cab = laco.cabecalho;
+        String rotCab = cab.rotulo();
+        String rotPre = nomes.rotulo();
+
+        List<TacInstr> out = new ArrayList<>();
+        for (BlocoBasico b : g.blocos()) {
+            if (b == cab) {
+                BlocoBasico ant = (b.id > 0) ? g.blocos().get(b.id - 1) : null;
+                if (ant != null && laco.contem(ant) && !ant.terminaEmSaltoIncondicional()) {
+                    out.add(TacInstr.jmp(rotCab));    // a volta não pode cair no pré-cabeçalho
+                }
+                out.add(TacInstr.label(rotPre));
+                out.addAll(conteudo);
+            }
+            boolean deFora = !laco.contem(b);
+            for (TacInstr in : b.instrucoes) {
+                out.add(deFora ? redirecionar(in, rotCab, rotPre) : in);
+            }
+        }
+        return out;
+    }
+
+    /** Desvios de fora do laço para o cabeçalho passam a ir para o pré-cabeçalho. */
+    private static TacInstr redirecionar(TacInstr in, String de, String para) {
+        return switch (in.op) {
+            case JMP -> de.equals(in.a1) ? TacInstr.jmp(para) : in;
+            case JMPFALSE -> de.equals(in.a2) ? TacInstr.jmpFalse(in.a1, para) : in;
+            case JMPTRUE -> de.equals(in.a2) ? TacInstr.jmpTrue(in.a1, para) : in;
+            default -> in;
+        };
+    }
+}
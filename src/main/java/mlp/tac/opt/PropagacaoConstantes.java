@@ -0,0 +1,199 @@
+package mlp.tac.opt;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import mlp.tac.Aritmetica;
+import mlp.tac.TacInstr;
+import mlp.tac.TacInstr.Op;
+import mlp.tac.cfg.BlocoBasico;
+import mlp.tac.cfg.GrafoFluxo;
+
+/**
+ * Dobramento e propagação de constantes condicional (estilo SCCP) sobre o TAC.
+ *
+ * Cada nome (variável ou temporário) recebe um valor do reticulado
+ *   TOPO (ainda sem definição) > constante c > FUNDO (não constante)
+ * e a análise anda pelos blocos básicos só através de arestas executáveis:
+ * um JMPFALSE/JMPTRUE cuja condição é constante marca apenas o lado tomado.
+ * Com isso constantes atravessam blocos e ramos mortos não poluem o resultado.
+ *
+ * Inteiros são guardados como double, então um literal inteiro fora da
+ * faixa exata (|v| > 2^53) é tratado como não constante, e as operações
+ * inteiras só dobram quando Aritmetica.podeDobrar garante o mesmo resultado
+ * da execução.
+ *
+ * Reescrita, só em blocos alcançáveis:
+ *  - instrução cujo destino é constante vira LOADI destino, c;
+ *  - STORE x, t com t constante vira LOADI x, c.
+ * Desvios e blocos mortos ficam como estão (a condição vira LOADI e a
+ * eliminação de código morto tira o desvio e o braço que não roda); LOADIs
+ * que sobrarem sem uso são removidos pela eliminação de temporários mortos.
+ */
+public class PropagacaoConstantes implements TacPass {
+
+    // ---------------- reticulado ----------------
+
+    private static final class Valor {
+        static final Valor TOPO  = new Valor(0, false);
+        static final Valor FUNDO = new Valor(0, false);
+
+        final double c;
+        final boolean inteiro;      // tipo do nome: decide o literal da reescrita
+        Valor(double c, boolean inteiro) { this.c = c; this.inteiro = inteiro; }
+
+        boolean constante() { return this != TOPO && this != FUNDO; }
+
+        static Valor encontro(Valor x, Valor y) {
+            if (x == null || x == TOPO) return (y == null) ? TOPO : y;
+            if (y == null || y == TOPO) return x;
+            if (x == FUNDO || y == FUNDO) return FUNDO;
+            return (Double.compare(x.c, y.c) == 0 && x.inteiro == y.inteiro) ? x : FUNDO;
+        }
+
+        static boolean iguais(Valor x, Valor y) {
+            if (x == y) return true;
+            if (x == null || y == null || !x.constante() || !y.constante()) return false;
+            return Double.compare(x.c, y.c) == 0 && x.inteiro == y.inteiro;
+        }
+    }
+
+    @Override
+    public String nome() {
+        return "constantes";
+    }
+
+    @Override
+    public List<TacInstr> aplicar(List<TacInstr> code) {
+        if (code.isEmpty()) return code;
+
+        GrafoFluxo g = GrafoFluxo.construir(code);
+        // ambiente na entrada de cada bloco; null = ainda não alcançado
+        List<Map<String, Valor>> entrada = new ArrayList<>();
+        for (int b = 0; b < g.tamanho(); b++) entrada.add(null);
+
+        // ---------- ponto fixo ----------
+        entrada.set(0, new HashMap<>());
+        Deque<BlocoBasico> trabalho = new ArrayDeque<>();
+        trabalho.add(g.entrada());
+        while (!trabalho.isEmpty()) {
+            BlocoBasico b = trabalho.poll();
+            Map<String, Valor> env = new HashMap<>(entrada.get(b.id));
+            for (TacInstr in : b.instrucoes) {
+                transferir(in, env);
+            }
+            for (BlocoBasico s : sucessoresExecutaveis(g, b, env)) {
+                if (mesclar(entrada, s.id, env)) trabalho.add(s);
+            }
+        }
+
+        // ---------- reescrita (blocos inalcançáveis ficam intocados) ----------
+        for (BlocoBasico b : g.blocos()) {
+            if (entrada.get(b.id) == null) continue;
+            Map<String, Valor> env = new HashMap<>(entrada.get(b.id));
+            for (int i = 0; i < b.instrucoes.size(); i++) {
+                TacInstr in = b.instrucoes.get(i);
+                b.instrucoes.set(i, reescrever(in, env));
+                transferir(in, env);
+            }
+        }
+        return g.linearizar();
+    }
+
+    /** Sucessores cuja aresta é executável dado o ambiente na saída do bloco. */
+    private static List<BlocoBasico> sucessoresExecutaveis(GrafoFluxo g, BlocoBasico b,
+                                                           Map<String, Valor> env) {
+        TacInstr ult = b.ultima();
+        if (ult.op != Op.JMPFALSE && ult.op != Op.JMPTRUE) return b.sucessores;
+
+        Valor c = valor(env, ult.a1);
+        if (c == Valor.TOPO) return List.of();
+        if (c == Valor.FUNDO) return b.sucessores;
+
+        boolean salta = (ult.op == Op.JMPFALSE) ? (c.c == 0) : (c.c != 0);
+        if (salta) {
+            BlocoBasico alvo = g.blocoDoRotulo(ult.a2);
+            return (alvo == null) ? List.of() : List.of(alvo);
+        }
+        return (b.id + 1 < g.tamanho()) ? List.of(g.blocos().get(b.id + 1)) : List.of();
+    }
+
+    /** Encontro da saída de um predecessor com a entrada do bloco; true se mudou. */
+    private static boolean mesclar(List<Map<String, Valor>> entrada, int alvo, Map<String, Valor> saida) {
+        Map<String, Valor> atual = entrada.get(alvo);
+        if (atual == null) {
+            entrada.set(alvo, new HashMap<>(saida));
+            return true;
+        }
+        boolean mudou = false;
+        for (Map.Entry<String, Valor> e : atual.entrySet()) {
+            Valor novo = Valor.encontro(e.getValue(), saida.get(e.getKey()));
+            if (!Valor.iguais(novo, e.getValue())) {
+                e.setValue(novo);
+                mudou = true;
+            }
+        }
+        for (Map.Entry<String, Valor> e : saida.entrySet()) {
+            if (!atual.containsKey(e.getKey())) {
+                atual.put(e.getKey(), e.getValue());
+                mudou = true;
+            }
+        }
+        return mudou;
+    }
+
+    // ---------------- função de transferência ----------------
+
+    private static Valor valor(Map<String, Valor> env, String nome) {
+        Valor v = env.get(nome);
+        return (v == null) ? Valor.TOPO : v;
+    }
+
+    private static void transferir(TacInstr in, Map<String, Valor> env) {
+        Valor v = resultado(in, env);
+        if (v != null) env.put(in.a1, v);
+    }
+
+    /** Valor escrito em a1 pela instrução, ou null se ela não define nada. */
+    private static Valor resultado(TacInstr in, Map<String, Valor> env) {
+        return switch (in.op) {
+            case LOADI -> literal(in.a2);
+            case LOAD, STORE -> valor(env, in.a2);
+            case ITOR -> {
+                Valor x = valor(env, in.a2);
+                yield x.constante() ? new Valor(x.c, false) : x;
+            }
+            default -> {
+                if (!Aritmetica.ehBinaria(in.op)) yield null;
+                Valor b = TacInstr.ehImediata(in.op) ? literal(in.a3) : valor(env, in.a3);
+                yield binaria(in.op, valor(env, in.a2), b);
+            }
+        };
+    }
+
+    private static Valor literal(String texto) {
+        String s = texto.trim();
+        if (!Aritmetica.literalExato(s)) return Valor.FUNDO;
+        return new Valor(Double.parseDouble(s), Aritmetica.ehLiteralInteiro(s));
+    }
+
+    private static Valor binaria(Op op, Valor a, Valor b) {
+        if (a == Valor.FUNDO || b == Valor.FUNDO) return Valor.FUNDO;
+        if (a == Valor.TOPO || b == Valor.TOPO) return Valor.TOPO;
+        if (!Aritmetica.podeDobrar(op, a.c, b.c)) return Valor.FUNDO;
+        return new Valor(Aritmetica.calcular(op, a.c, b.c), TacInstr.produzInteiro(op));
+    }
+
+    private static TacInstr reescrever(TacInstr in, Map<String, Valor> env) {
+        if (in.op == Op.LOADI) return in;
+        Valor v = resultado(in, env);
+        if (v != null && v.constante()) {
+            return TacInstr.loadi(in.a1, Aritmetica.literal(v.c, v.inteiro));
+        }
+        return in;
+    }
+}
@@ -0,0 +1,152 @@
+package mlp.tac.opt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import mlp.tac.TacInstr;
+import mlp.tac.TacInstr.Op;
+import mlp.tac.cfg.BlocoBasico;
+import mlp.tac.cfg.GrafoFluxo;
+
+/**
+ * Propagação de cópias sobre o TAC.
+ *
+ * 1) Cópias disponíveis (análise global, interseção nos predecessores):
+ *    depois de "LOAD t, x" (ou "STORE x, t"), enquanto nem t nem x forem
+ *    redefinidos, toda leitura de t passa a ler x diretamente. O LOAD fica
+ *    sem uso e sai na eliminação de temporários mortos.
+ *
+ * 2) Coalescência do destino: "op t, a, b ; ... ; STORE x, t" dentro do mesmo
+ *    bloco, com t lido só por esse STORE e x intocado no meio, vira
+ *    "op x, a, b" e o STORE some.
+ */
+public class PropagacaoCopias implements TacPass {
+
+    @Override
+    public String nome() {
+        return "copias";
+    }
+
+    @Override
+    public List<TacInstr> aplicar(List<TacInstr> code) {
+        if (code.isEmpty()) return code;
+        return coalescer(propagar(code));
+    }
+
+    // ---------------- 1) cópias disponíveis ----------------
+
+    private List<TacInstr> propagar(List<TacInstr> code) {
+        GrafoFluxo g = GrafoFluxo.construir(code);
+        int nb = g.tamanho();
+
+        // null = "todas as cópias" (ainda não calculado), para a interseção otimista
+        List<Map<String, String>> entrada = new ArrayList<>();
+        List<Map<String, String>> saida = new ArrayList<>();
+        for (int b = 0; b < nb; b++) { entrada.add(null); saida.add(null); }
+        entrada.set(0, new HashMap<>());
+
+        List<BlocoBasico> ordem = g.posOrdemReversa();
+        boolean mudou = true;
+        while (mudou) {
+            mudou = false;
+            for (BlocoBasico bl : ordem) {
+                Map<String, String> in = (bl == g.entrada()) ? new HashMap<>()
+                                                             : intersecao(bl.predecessores, saida);
+                if (in == null) continue;      // nenhum predecessor calculado ainda
+                entrada.set(bl.id, in);
+
+                Map<String, String> out = new HashMap<>(in);
+                for (TacInstr instr : bl.instrucoes) {
+                    transferir(instr.trocarUsos(u -> out.getOrDefault(u, u)), out);
+                }
+                if (!out.equals(saida.get(bl.id))) {
+                    saida.set(bl.id, out);
+                    mudou = true;
+                }
+            }
+        }
+
+        for (BlocoBasico bl : g.blocos()) {
+            Map<String, String> disp = (entrada.get(bl.id) == null) ? new HashMap<>() : new HashMap<>(entrada.get(bl.id));
+            List<TacInstr> novas = new ArrayList<>(bl.instrucoes.size());
+            for (TacInstr instr : bl.instrucoes) {
+                TacInstr novo = instr.trocarUsos(u -> disp.getOrDefault(u, u));
+                transferir(novo, disp);
+                if (ehCopiaDeSiMesmo(novo)) continue;
+                novas.add(novo);
+            }
+            bl.instrucoes.clear();
+            bl.instrucoes.addAll(novas);
+        }
+        return g.linearizar();
+    }
+
+    private static Map<String, String> intersecao(List<BlocoBasico> preds, List<Map<String, String>> saida) {
+        Map<String, String> res = null;
+        for (BlocoBasico p : preds) {
+            Map<String, String> s = saida.get(p.id);
+            if (s == null) continue;
+            if (res == null) {
+                res = new HashMap<>(s);
+            } else {
+                res.entrySet().removeIf(e -> !e.getValue().equals(s.get(e.getKey())));
+            }
+        }
+        return res;
+    }
+
+    private static void transferir(TacInstr in, Map<String, String> disp) {
+        String d = in.definido();
+        if (d == null) return;
+        Iterator<Map.Entry<String, String>> it = disp.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, String> e = it.next();
+            if (e.getKey().equals(d) || e.getValue().equals(d)) it.remove();
+        }
+        if ((in.op == Op.LOAD || in.op == Op.STORE) && !in.a2.equals(d)) {
+            disp.put(d, in.a2);
+        }
+    }
+
+    private static boolean ehCopiaDeSiMesmo(TacInstr in) {
+        return (in.op == Op.LOAD || in.op == Op.STORE) && in.a1.equals(in.a2);
+    }
+
+    // ---------------- 2) coalescência do destino ----------------
+
+    private List<TacInstr> coalescer(List<TacInstr> code) {
+        Map<String, Integer> leituras = new HashMap<>();
+        for (TacInstr in : code) {
+            for (String u : in.usados()) leituras.merge(u, 1, Integer::sum);
+        }
+
+        List<TacInstr> res = new ArrayList<>(code);
+        boolean[] remover = new boolean[res.size()];
+        for (int j = 0; j < res.size(); j++) {
+            TacInstr st = res.get(j);
+            if (st.op != Op.STORE || leituras.getOrDefault(st.a2, 0) != 1) continue;
+            String x = st.a1, t = st.a2;
+
+            for (int i = j - 1; i >= 0; i--) {
+                TacInstr in = res.get(i);
+                if (remover[i]) continue;
+                if (in.op == Op.LABEL || GrafoFluxo.ehDesvio(in.op)) break;  // saiu do bloco
+                if (t.equals(in.definido())) {
+                    res.set(i, in.comDestino(x));
+                    remover[j] = true;
+                    break;
+                }
+                if (x.equals(in.definido()) || in.usados().contains(x)) break;
+            }
+        }
+
+        List<TacInstr> out = new ArrayList<>(res.size());
+        for (int i = 0; i < res.size(); i++) {
+            if (!remover[i]) out.add(res.get(i));
+        }
+        return out;
+    }
+}
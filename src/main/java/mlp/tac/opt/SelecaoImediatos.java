@@ -0,0 +1,83 @@
+package mlp.tac.opt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import mlp.tac.TacInstr;
+import mlp.tac.TacInstr.Op;
+
+/**
+ * Seleção de formas imediatas.
+ *
+ * Uma operação binária cujo operando é um nome com valor constante conhecido
+ * passa para a forma com o literal embutido: "ADD t, x, k" com k = 5 vira
+ * "ADDI t, x, 5"; o mesmo vale para SUB, MUL e as comparações (MULI,
+ * CMPLTI, ...). Se a constante está à esquerda, a operação é espelhada
+ * antes (soma e produto trocam os lados, "k < x" vira "x > k").
+ *
+ * O gerador já faz isso quando o literal aparece no fonte; este passe pega
+ * as constantes que só aparecem depois da propagação de constantes, da
+ * numeração de valores ou do LICM. O LOADI que deixa de ser lido é removido
+ * pela eliminação de temporários mortos, então o interpretador economiza a
+ * carga e o acesso ao nome.
+ *
+ * DIV e REM (e IDIV/IREM) ficam como estão: não têm forma imediata. O
+ * literal embutido é o texto do LOADI, então mantém o tipo do nome.
+ */
+public class SelecaoImediatos implements TacPass {
+
+    @Override
+    public String nome() {
+        return "imediatos";
+    }
+
+    @Override
+    public List<TacInstr> aplicar(List<TacInstr> code) {
+        Map<String, String> constantes = literais(code);
+        if (constantes.isEmpty()) return code;
+
+        List<TacInstr> out = new ArrayList<>(code.size());
+        boolean mudou = false;
+        for (TacInstr in : code) {
+            TacInstr novo = selecionar(in, constantes);
+            if (novo != in) mudou = true;
+            out.add(novo);
+        }
+        return mudou ? out : code;
+    }
+
+    private static TacInstr selecionar(TacInstr in, Map<String, String> constantes) {
+        Op imediata = TacInstr.formaImediata(in.op);
+        if (imediata == null) return in;
+
+        String k = constantes.get(in.a3);
+        if (k != null) return TacInstr.imediata(imediata, in.a1, in.a2, k);
+
+        Op espelho = TacInstr.espelhada(in.op);
+        k = constantes.get(in.a2);
+        if (k != null && espelho != null) {
+            return TacInstr.imediata(TacInstr.formaImediata(espelho), in.a1, in.a3, k);
+        }
+        return in;
+    }
+
+    /**
+     * Nomes com uma única definição no programa inteiro, sendo ela um LOADI.
+     * Como variáveis lidas antes de atribuídas são zeradas no início (o que
+     * conta como outra definição), essa definição alcança todas as leituras.
+     */
+    static Map<String, String> literais(List<TacInstr> code) {
+        Map<String, Integer> defs = new HashMap<>();
+        Map<String, String> valor = new HashMap<>();
+        for (TacInstr in : code) {
+            String d = in.definido();
+            if (d == null) continue;
+            defs.merge(d, 1, Integer::sum);
+            if (in.op == Op.LOADI) valor.put(d, in.a2.trim());
+        }
+        valor.keySet().removeIf(n -> defs.get(n) != 1);
+        return valor;
+    }
+}
@@ -0,0 +1,18 @@
+package mlp.tac.opt;
+
+import java.util.List;
+
+import mlp.tac.TacInstr;
+
+/**
+ * Um passe de otimização sobre o TAC. Recebe o código e devolve o código
+ * transformado (pode ser a mesma lista, se nada mudou); não deve alterar a
+ * lista recebida.
+ */
+public interface TacPass {
+
+    /** Nome curto, usado nas estatísticas (--stats). */
+    String nome();
+
+    List<TacInstr> aplicar(List<TacInstr> code);
+}
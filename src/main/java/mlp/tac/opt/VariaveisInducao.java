@@ -0,0 +1,337 @@
+package mlp.tac.opt;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import mlp.tac.Aritmetica;
+import mlp.tac.TacInstr;
+import mlp.tac.TacInstr.Op;
+import mlp.tac.cfg.BlocoBasico;
+import mlp.tac.cfg.Dominadores;
+import mlp.tac.cfg.GrafoFluxo;
+import mlp.tac.cfg.LacoNatural;
+import mlp.tac.cfg.Lacos;
+import mlp.tac.cfg.Vivacidade;
+
+/**
+ * Variáveis de indução e redução de força.
+ *
+ * Básica: variável inteira com uma única definição no laço, da forma
+ * i = i + c ou i = i - c (c constante inteira). O incremento é reescrito
+ * como IADDI/ISUBI com o imediato.
+ *
+ * Derivada: "IMUL d, i, c" (ou "IMULI d, i, c") com i básica e c constante
+ * inteira. Ganha um
+ * temporário s iniciado no pré-cabeçalho com i * c e atualizado com
+ * "IADDI s, s, passo*c" logo depois do incremento de i; como os dois andam
+ * juntos, s == i * c em todo ponto do laço e o IMUL vira "LOAD d, s".
+ *
+ * Eliminação: se depois disso i só é lida no próprio incremento e na
+ * comparação do cabeçalho que decide a saída do laço, e está morta na
+ * saída, a comparação passa a ser feita com s contra n * c (espelhada se
+ * c < 0) e o incremento de i some. Aqui a volta em 64 bits não é inofensiva:
+ * se i * c der a volta, s < n * c deixa de ser i < n. Por isso o início k
+ * (única definição de i fora do laço) e o limite n precisam ser constantes,
+ * o passo precisa andar na direção da comparação (< e <= para cima, > e >=
+ * para baixo) e todos os valores que i assume no laço, multiplicados por c,
+ * precisam caber no long; senão a comparação fica com i.
+ *
+ * Só variáveis declaradas inteiro entram: com inteiros a soma repetida dá
+ * exatamente o produto (mesmo dando a volta em 64 bits), o que basta para a
+ * redução de força; com reais o arredondamento mudaria o resultado. Passos
+ * calculados aqui que estourariam o long deixam a variável como está.
+ * "i RESTO m" não é reduzido (exigiria um desvio a cada volta).
+ */
+public class VariaveisInducao implements TacPass {
+
+    private final Set<String> inteiras;
+
+    /** @param inteiras variáveis declaradas como inteiro */
+    public VariaveisInducao(Set<String> inteiras) {
+        this.inteiras = inteiras;
+    }
+
+    /** Variável básica: a instrução que a incrementa e o passo. */
+    private record Basica(String nome, BlocoBasico bloco, TacInstr incremento, long passo) {}
+
+    /** Variável derivada s == basica * fator. */
+    private record Derivada(String temp, Basica base, long fator, long delta) {}
+
+    @Override
+    public String nome() {
+        return "inducao";
+    }
+
+    @Override
+    public List<TacInstr> aplicar(List<TacInstr> code) {
+        List<TacInstr> atual = code;
+        boolean mudou = true;
+        while (mudou) {
+            mudou = false;
+            GrafoFluxo g = GrafoFluxo.construir(atual);
+            Dominadores dom = new Dominadores(g);
+            Vivacidade viv = new Vivacidade(g);
+            Map<String, String> constantes = SelecaoImediatos.literais(atual);
+            for (LacoNatural laco : new Lacos(g, dom).todos()) {
+                List<TacInstr> novo = reduzir(atual, g, dom, viv, laco, constantes);
+                if (novo != null) {
+                    atual = novo;
+                    mudou = true;
+                    break;
+                }
+            }
+        }
+        return atual;
+    }
+
+    private List<TacInstr> reduzir(List<TacInstr> code, GrafoFluxo g, Dominadores dom, Vivacidade viv,
+                                   LacoNatural laco, Map<String, String> constantes) {
+        if (laco.cabecalho.rotulo() == null) return null;
+
+        Map<String, Integer> defs = new HashMap<>();
+        for (BlocoBasico b : laco.corpo) {
+            for (TacInstr in : b.instrucoes) {
+                if (in.definido() != null) defs.merge(in.definido(), 1, Integer::sum);
+            }
+        }
+
+        // ---------- básicas (incremento em forma ADDI/SUBI) ----------
+        boolean mudou = false;
+        Map<String, Basica> basicas = new LinkedHashMap<>();
+        for (BlocoBasico b : laco.corpo) {
+            for (int i = 0; i < b.instrucoes.size(); i++) {
+                TacInstr in = b.instrucoes.get(i);
+                String d = in.definido();
+                if (d == null || !inteiras.contains(d) || defs.get(d) != 1) continue;
+                Long passo = passo(in, constantes);
+                if (passo == null || passo == Long.MIN_VALUE) continue;
+
+                TacInstr inc = (passo >= 0) ? TacInstr.imediata(Op.IADDI, d, d, Long.toString(passo))
+                                            : TacInstr.imediata(Op.ISUBI, d, d, Long.toString(-passo));
+                if (in.op != inc.op) mudou = true;
+                b.instrucoes.set(i, inc);
+                basicas.put(d, new Basica(d, b, inc, passo));
+            }
+        }
+
+        // ---------- derivadas ----------
+        NomesNovos nomes = new NomesNovos(code);
+        Map<String, Derivada> derivadas = new LinkedHashMap<>();   // "i*c" -> derivada
+        for (BlocoBasico b : laco.corpo) {
+            for (int i = 0; i < b.instrucoes.size(); i++) {
+                TacInstr in = b.instrucoes.get(i);
+                String iv;
+                Long c;
+                if (in.op == Op.IMULI) {
+                    iv = basicas.containsKey(in.a2) ? in.a2 : null;
+                    c = inteiro(in.a3);
+                } else if (in.op == Op.IMUL) {
+                    iv = basicas.containsKey(in.a2) ? in.a2 : basicas.containsKey(in.a3) ? in.a3 : null;
+                    c = (iv == null) ? null : inteiro(constantes.get(iv.equals(in.a2) ? in.a3 : in.a2));
+                } else {
+                    continue;
+                }
+                if (iv == null || c == null) continue;
+                Long delta = produto(basicas.get(iv).passo, c);
+                if (delta == null || delta == Long.MIN_VALUE) continue;
+
+                Derivada dv = derivadas.computeIfAbsent(iv + "*" + c,
+                        k -> new Derivada(nomes.temporario(), basicas.get(iv), c, delta));
+                b.instrucoes.set(i, TacInstr.load(in.a1, dv.temp));
+                mudou = true;
+            }
+        }
+        if (!mudou) return null;
+
+        List<TacInstr> pre = new ArrayList<>();
+        for (Derivada dv : derivadas.values()) {
+            pre.add(TacInstr.imediata(Op.IMULI, dv.temp, dv.base.nome, Long.toString(dv.fator)));
+
+            long delta = dv.delta;
+            TacInstr atualiza = (delta >= 0) ? TacInstr.imediata(Op.IADDI, dv.temp, dv.temp, Long.toString(delta))
+                                             : TacInstr.imediata(Op.ISUBI, dv.temp, dv.temp, Long.toString(-delta));
+            List<TacInstr> l = dv.base.bloco.instrucoes;
+            l.add(l.indexOf(dv.base.incremento) + 1, atualiza);
+        }
+
+        // ---------- eliminação de básicas redundantes ----------
+        Set<String> vivasDepois = new HashSet<>();
+        for (BlocoBasico s : laco.saidas()) vivasDepois.addAll(viv.vivasNaEntrada(s));
+        Set<Basica> eliminadas = new HashSet<>();
+        for (Derivada dv : derivadas.values()) {
+            Basica bi = dv.base;
+            if (eliminadas.contains(bi) || vivasDepois.contains(bi.nome) || dv.fator == 0) continue;
+            if (substituirComparacao(g, dom, laco, bi, dv, constantes)) {
+                bi.bloco.instrucoes.remove(bi.incremento);
+                eliminadas.add(bi);
+            }
+        }
+
+        return pre.isEmpty() ? g.linearizar() : PreCabecalho.inserir(g, laco, pre, nomes);
+    }
+
+    /** Passo de "i = i + c" / "i = i - c" com c constante inteira, ou null. */
+    private static Long passo(TacInstr in, Map<String, String> constantes) {
+        String i = in.a1;
+        Long c = null;
+        switch (in.op) {
+            case IADDI -> { if (in.a2.equals(i)) c = inteiro(in.a3); }
+            case ISUBI -> { if (in.a2.equals(i)) c = negar(inteiro(in.a3)); }
+            case IADD -> {
+                if (in.a2.equals(i) && !in.a3.equals(i)) c = inteiro(constantes.get(in.a3));
+                else if (in.a3.equals(i) && !in.a2.equals(i)) c = inteiro(constantes.get(in.a2));
+            }
+            case ISUB -> { if (in.a2.equals(i)) c = negar(inteiro(constantes.get(in.a3))); }
+            default -> {}
+        }
+        return c;
+    }
+
+    /** Valor de um literal inteiro, ou null (literal real ou ausente). */
+    private static Long inteiro(String literal) {
+        return (literal != null && Aritmetica.ehLiteralInteiro(literal)) ? Long.parseLong(literal.trim()) : null;
+    }
+
+    private static Long negar(Long k) {
+        return (k == null || k == Long.MIN_VALUE) ? null : -k;
+    }
+
+    /** a * b, ou null se estoura o long. */
+    private static Long produto(long a, long b) {
+        try {
+            return Math.multiplyExact(a, b);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Troca a comparação do cabeçalho com i por uma com a derivada. Só se i
+     * não for lida em mais nada além do incremento e se i * c não puder dar a
+     * volta em nenhum valor que i assume no laço.
+     */
+    private static boolean substituirComparacao(GrafoFluxo g, Dominadores dom, LacoNatural laco,
+                                                Basica bi, Derivada dv, Map<String, String> constantes) {
+        BlocoBasico blocoCmp = null;
+        int posCmp = -1;
+        for (BlocoBasico b : laco.corpo) {
+            for (int i = 0; i < b.instrucoes.size(); i++) {
+                TacInstr in = b.instrucoes.get(i);
+                if (in == bi.incremento || !in.usados().contains(bi.nome)) continue;
+                if (blocoCmp != null || !TacInstr.ehInteira(in.op) || !TacInstr.ehComparacao(in.op)) return false;
+                blocoCmp = b;
+                posCmp = i;
+            }
+        }
+        if (blocoCmp != laco.cabecalho || !decideSaida(g, laco, posCmp)) return false;
+        for (LacoNatural interno : laco.internos()) {
+            if (interno.contem(bi.bloco)) return false;              // incremento roda mais de uma vez por volta
+        }
+
+        // normaliza para "i OP n"
+        TacInstr cmp = blocoCmp.instrucoes.get(posCmp);
+        Op op = TacInstr.formaBase(cmp.op);
+        String n;
+        if (TacInstr.ehImediata(cmp.op)) {
+            n = cmp.a3;
+        } else if (cmp.a2.equals(bi.nome) && !cmp.a3.equals(bi.nome)) {
+            n = constantes.get(cmp.a3);
+        } else if (cmp.a3.equals(bi.nome) && !cmp.a2.equals(bi.nome)) {
+            n = constantes.get(cmp.a2);
+            op = espelhar(op);
+        } else {
+            return false;
+        }
+        Long limite = inteiro(n);
+        Long inicio = inicio(g, dom, laco, bi.nome, constantes);
+        if (limite == null || inicio == null) return false;
+
+        long[] faixa = faixa(op, bi.passo, inicio, limite);
+        Long novoLimite = produto(limite, dv.fator);
+        if (faixa == null || novoLimite == null
+                || produto(faixa[0], dv.fator) == null || produto(faixa[1], dv.fator) == null) {
+            return false;
+        }
+
+        if (dv.fator < 0) op = espelhar(op);
+        blocoCmp.instrucoes.set(posCmp, TacInstr.imediata(TacInstr.formaImediata(op), cmp.a1, dv.temp,
+                                                          Long.toString(novoLimite)));
+        return true;
+    }
+
+    /** A comparação em pos é a que o fim do cabeçalho usa para sair do laço? */
+    private static boolean decideSaida(GrafoFluxo g, LacoNatural laco, int pos) {
+        List<TacInstr> l = laco.cabecalho.instrucoes;
+        TacInstr cmp = l.get(pos);
+        TacInstr desvio = laco.cabecalho.ultima();
+        if (desvio == null || desvio.op != Op.JMPFALSE || !cmp.a1.equals(desvio.a1)) return false;
+        for (int i = pos + 1; i < l.size() - 1; i++) {
+            if (cmp.a1.equals(l.get(i).definido())) return false;
+        }
+        BlocoBasico fora = g.blocoDoRotulo(desvio.a2);
+        return fora != null && !laco.contem(fora);
+    }
+
+    /**
+     * Valor constante de i na entrada do laço: i tem só uma definição fora
+     * do laço, que domina o cabeçalho e carrega uma constante inteira.
+     */
+    private static Long inicio(GrafoFluxo g, Dominadores dom, LacoNatural laco, String i,
+                               Map<String, String> constantes) {
+        BlocoBasico bloco = null;
+        TacInstr def = null;
+        for (BlocoBasico b : g.blocos()) {
+            if (laco.contem(b)) continue;
+            for (TacInstr in : b.instrucoes) {
+                if (!i.equals(in.definido())) continue;
+                if (def != null) return null;
+                bloco = b;
+                def = in;
+            }
+        }
+        if (def == null || !dom.domina(bloco, laco.cabecalho)) return null;
+        return switch (def.op) {
+            case LOADI -> inteiro(def.a2);
+            case LOAD, STORE -> inteiro(constantes.get(def.a2));
+            default -> null;
+        };
+    }
+
+    /**
+     * Menor e maior valor que i assume no laço, começando em k, andando de
+     * passo em passo e saindo quando "i OP n" falha; null se o passo não anda
+     * na direção da comparação ou se a conta estoura.
+     */
+    private static long[] faixa(Op op, long passo, long k, long n) {
+        try {
+            long segundo = Math.addExact(k, passo);
+            return switch (op) {
+                case ICMPLT -> (passo > 0) ? new long[] { k, max(k, segundo, Math.addExact(Math.subtractExact(n, 1), passo)) } : null;
+                case ICMPLE -> (passo > 0) ? new long[] { k, max(k, segundo, Math.addExact(n, passo)) } : null;
+                case ICMPGT -> (passo < 0) ? new long[] { min(k, segundo, Math.addExact(Math.addExact(n, 1), passo)), k } : null;
+                case ICMPGE -> (passo < 0) ? new long[] { min(k, segundo, Math.addExact(n, passo)), k } : null;
+                default -> null;
+            };
+        } catch (ArithmeticException e) {
+            return null;                                          // i poderia dar a volta no laço
+        }
+    }
+
+    private static long max(long a, long b, long c) {
+        return Math.max(a, Math.max(b, c));
+    }
+
+    private static long min(long a, long b, long c) {
+        return Math.min(a, Math.min(b, c));
+    }
+
+    /** a OP b  <=>  -a OP' -b  (o mesmo que trocar os lados) */
+    private static Op espelhar(Op op) {
+        return TacInstr.espelhada(op);
+    }
+}
@@ -0,0 +1,222 @@
+package mlp.tac.ssa;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import mlp.tac.TacInstr;
+import mlp.tac.cfg.BlocoBasico;
+import mlp.tac.cfg.Dominadores;
+import mlp.tac.cfg.GrafoFluxo;
+import mlp.tac.cfg.Vivacidade;
+
+/**
+ * TAC em forma SSA (cada nome definido uma única vez).
+ *
+ * Construção (Cytron et al.): phis nas fronteiras de dominância iteradas
+ * das definições de cada nome, podadas pela vivacidade (só onde o nome está
+ * vivo na entrada), e renomeação percorrendo a árvore de dominadores. As
+ * versões se chamam "x.1", "x.2", ...; o ponto não aparece em
+ * identificadores do MLP, então não há colisão. Um nome lido sem definição
+ * anterior continua com o nome original (versão 0).
+ *
+ * Destruição: como a renomeação parte de código comum e os passes só
+ * trocam instruções inteiras (nunca estendem o tempo de vida de uma versão),
+ * as versões de um mesmo nome não se sobrepõem e basta voltar ao nome
+ * original e descartar as phis. A exceção são as versões marcadas com
+ * {@link #isolar}: essas passam a ocupar um temporário próprio, e a
+ * definição ganha uma cópia para o nome original.
+ */
+public class FormaSSA {
+
+    private final GrafoFluxo g;
+    private final Dominadores dom;
+    private final Map<BlocoBasico, List<Phi>> phis = new HashMap<>();
+    private final Map<String, String> original = new HashMap<>();
+    private final Set<String> isolados = new LinkedHashSet<>();
+    private final Set<String> nomesDoCodigo = new HashSet<>();
+
+    private FormaSSA(List<TacInstr> code) {
+        this.g = GrafoFluxo.construir(code);
+        this.dom = new Dominadores(g);
+        for (TacInstr in : code) {
+            if (in.definido() != null) nomesDoCodigo.add(in.definido());
+            nomesDoCodigo.addAll(in.usados());
+        }
+    }
+
+    public static FormaSSA construir(List<TacInstr> code) {
+        FormaSSA ssa = new FormaSSA(code);
+        if (!code.isEmpty()) {
+            ssa.inserirPhis();
+            ssa.renomear();
+        }
+        return ssa;
+    }
+
+    // ---------------- acesso ----------------
+
+    public GrafoFluxo grafo()              { return g; }
+    public Dominadores dominadores()       { return dom; }
+
+    public List<Phi> phis(BlocoBasico b) {
+        return phis.getOrDefault(b, List.of());
+    }
+
+    /** Nome antes do SSA de uma versão (ou o próprio nome, se não for versão). */
+    public String original(String nome) {
+        return original.getOrDefault(nome, nome);
+    }
+
+    /**
+     * Marca uma versão cujo valor será lido fora do seu tempo de vida
+     * original (por exemplo, como líder na numeração de valores).
+     */
+    public void isolar(String versao) {
+        isolados.add(versao);
+    }
+
+    // ---------------- construção ----------------
+
+    private void inserirPhis() {
+        Vivacidade viv = new Vivacidade(g);
+
+        Map<String, Set<BlocoBasico>> sitiosDef = new LinkedHashMap<>();
+        for (BlocoBasico b : g.blocos()) {
+            if (!dom.alcancavel(b)) continue;
+            for (TacInstr in : b.instrucoes) {
+                String d = in.definido();
+                if (d != null) sitiosDef.computeIfAbsent(d, k -> new HashSet<>()).add(b);
+            }
+        }
+
+        for (Map.Entry<String, Set<BlocoBasico>> e : sitiosDef.entrySet()) {
+            String v = e.getKey();
+            Set<BlocoBasico> comPhi = new HashSet<>();
+            Deque<BlocoBasico> trabalho = new ArrayDeque<>(e.getValue());
+            Set<BlocoBasico> jaNaFila = new HashSet<>(e.getValue());
+            while (!trabalho.isEmpty()) {
+                BlocoBasico x = trabalho.poll();
+                for (BlocoBasico y : dom.fronteira(x)) {
+                    if (!viv.vivasNaEntrada(y).contains(v) || !comPhi.add(y)) continue;
+                    phis.computeIfAbsent(y, k -> new ArrayList<>())
+                        .add(new Phi(v, y.predecessores.size()));
+                    if (jaNaFila.add(y)) trabalho.add(y);
+                }
+            }
+        }
+    }
+
+    /** Renomeação em pré-ordem na árvore de dominadores (sem recursão). */
+    private void renomear() {
+        Map<String, Deque<String>> pilhas = new HashMap<>();
+        Map<String, Integer> contador = new HashMap<>();
+        List<List<String>> empilhados = new ArrayList<>();
+        for (int i = 0; i < g.tamanho(); i++) empilhados.add(null);
+
+        Deque<BlocoBasico> visita = new ArrayDeque<>();
+        Set<BlocoBasico> aberto = new HashSet<>();
+        visita.push(g.entrada());
+        while (!visita.isEmpty()) {
+            BlocoBasico b = visita.pop();
+            if (aberto.remove(b)) {
+                // saída do bloco: desfaz as versões que ele empilhou
+                for (String v : empilhados.get(b.id)) pilhas.get(v).pop();
+                continue;
+            }
+            aberto.add(b);
+            visita.push(b);
+
+            List<String> meus = new ArrayList<>();
+            empilhados.set(b.id, meus);
+
+            for (Phi p : phis(b)) {
+                p.destino = novaVersao(p.variavel, pilhas, contador);
+                meus.add(p.variavel);
+            }
+            for (int i = 0; i < b.instrucoes.size(); i++) {
+                TacInstr in = b.instrucoes.get(i).trocarUsos(u -> atual(u, pilhas));
+                String d = in.definido();
+                if (d != null) {
+                    in = in.comDestino(novaVersao(d, pilhas, contador));
+                    meus.add(d);
+                }
+                b.instrucoes.set(i, in);
+            }
+            for (BlocoBasico s : b.sucessores) {
+                int j = s.predecessores.indexOf(b);
+                for (Phi p : phis(s)) p.args[j] = atual(p.variavel, pilhas);
+            }
+            for (BlocoBasico f : dom.filhos(b)) visita.push(f);
+        }
+
+        // argumentos vindos de predecessores inalcançáveis
+        for (List<Phi> lista : phis.values()) {
+            for (Phi p : lista) {
+                for (int j = 0; j < p.args.length; j++) {
+                    if (p.args[j] == null) p.args[j] = p.variavel;
+                }
+            }
+        }
+    }
+
+    private String novaVersao(String v, Map<String, Deque<String>> pilhas, Map<String, Integer> contador) {
+        String nome = v + "." + contador.merge(v, 1, Integer::sum);
+        original.put(nome, v);
+        pilhas.computeIfAbsent(v, k -> new ArrayDeque<>()).push(nome);
+        return nome;
+    }
+
+    private static String atual(String v, Map<String, Deque<String>> pilhas) {
+        Deque<String> p = pilhas.get(v);
+        return (p == null || p.isEmpty()) ? v : p.peek();
+    }
+
+    // ---------------- destruição ----------------
+
+    /** Volta ao TAC executável (sem phis nem versões). */
+    public List<TacInstr> destruir() {
+        Map<String, String> temps = new HashMap<>();
+        int prox = 0;
+        for (String v : isolados) {
+            String t;
+            do { t = "t" + (prox++); } while (nomesDoCodigo.contains(t));
+            temps.put(v, t);
+        }
+
+        List<TacInstr> out = new ArrayList<>();
+        for (BlocoBasico b : g.blocos()) {
+            for (TacInstr in : b.instrucoes) {
+                TacInstr novo = in.trocarUsos(u -> temps.getOrDefault(u, original(u)));
+                String d = in.definido();
+                if (d == null) {
+                    out.add(novo);
+                } else if (temps.containsKey(d)) {
+                    out.add(novo.comDestino(temps.get(d)));
+                    out.add(TacInstr.store(original(d), temps.get(d)));
+                } else {
+                    out.add(novo.comDestino(original(d)));
+                }
+            }
+        }
+        return out;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (BlocoBasico b : g.blocos()) {
+            sb.append(b).append(" -> ").append(b.sucessores).append('\n');
+            for (Phi p : phis(b)) sb.append("    ").append(p).append('\n');
+            for (TacInstr in : b.instrucoes) sb.append("    ").append(in).append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package mlp.tac.ssa;
+
+import java.util.Arrays;
+
+/**
+ * Função phi no início de um bloco: destino = PHI(args), com um argumento
+ * por predecessor, na mesma ordem de {@code bloco.predecessores}.
+ */
+public class Phi {
+
+    public final String variavel;              // nome original (antes do SSA)
+    String destino;
+    final String[] args;
+
+    Phi(String variavel, int numPreds) {
+        this.variavel = variavel;
+        this.destino = variavel;
+        this.args = new String[numPreds];
+    }
+
+    public String destino() {
+        return destino;
+    }
+
+    /** Valor que chega pelo i-ésimo predecessor. */
+    public String arg(int i) {
+        return args[i];
+    }
+
+    public int numArgs() {
+        return args.length;
+    }
+
+    @Override
+    public String toString() {
+        return destino + " = PHI" + Arrays.toString(args);
+    }
+}